@@ -0,0 +1,73 @@
+package com.byteandblog.build;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-time helper run by maven-antrun-plugin: writes a {@code .gz} sibling
+ * at maximum compression next to every asset with one of the given
+ * extensions. Pure Java, so the build does not depend on a gzip binary.
+ * The gzip header carries no file name or timestamp, as with {@code gzip -n},
+ * so unchanged assets produce identical output.
+ * <p>
+ * Usage: {@code PrecompressAssets <directory> <ext,ext,...>}
+ */
+public final class PrecompressAssets {
+
+    private PrecompressAssets() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: PrecompressAssets <directory> <ext,ext,...>");
+        }
+        Path root = Paths.get(args[0]);
+        Set<String> extensions = Set.of(args[1].toLowerCase(Locale.ROOT).split(","));
+        if (!Files.isDirectory(root)) {
+            System.out.println("No assets to precompress in " + root);
+            return;
+        }
+        List<Path> assets;
+        try (Stream<Path> files = Files.walk(root)) {
+            assets = files.filter(Files::isRegularFile).filter(file -> extensions.contains(extension(file)))
+                    .collect(Collectors.toList());
+        }
+        long before = 0;
+        long after = 0;
+        for (Path asset : assets) {
+            Path gzipped = asset.resolveSibling(asset.getFileName() + ".gz");
+            byte[] content = Files.readAllBytes(asset);
+            try (OutputStream out = new MaxCompressionGzipStream(Files.newOutputStream(gzipped))) {
+                out.write(content);
+            }
+            before += content.length;
+            after += Files.size(gzipped);
+        }
+        System.out.println("Precompressed " + assets.size() + " assets in " + root + ": " + before / 1024 + " KB to "
+                + after / 1024 + " KB");
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // The same level as gzip -9.
+    private static final class MaxCompressionGzipStream extends GZIPOutputStream {
+        MaxCompressionGzipStream(OutputStream out) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
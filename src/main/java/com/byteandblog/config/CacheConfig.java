@@ -0,0 +1,18 @@
+package com.byteandblog.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Caffeine-backed cache tier configured in application.properties.
+ * Cache names live here so readers and evicting writers agree on them.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BLOG_POST = "blogPost";
+    public static final String BLOG_POSTS = "blogPosts";
+    public static final String BLOG_POST_SUMMARIES = "blogPostSummaries";
+    public static final String BLOG_POST_FEED = "blogPostFeed";
+}
@@ -1,36 +1,76 @@
 package com.byteandblog.config;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.byteandblog.service.TokenVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Authenticates requests from the bearer token alone: the principal and its
+ * authorities come from the verified {@code sub} and {@code roles} claims, and
+ * the only lookup is the cached token version check that lets a password reset
+ * revoke older tokens.
+ * <p>
+ * Clients send the same token on every request, so a successfully verified
+ * token is remembered under its SHA-256 digest until it expires and the HS512
+ * signature is only checked once. The version check still runs per request.
+ */
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 	
 	private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
 
+    // Tokens issued before versioning carry no "ver" claim and count as version 0.
+    private static final int UNVERSIONED = 0;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    // Null when jwt.verified-cache.max-size is 0, in which case every request is verified.
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final long maxTtlNanos;
 
-    public JwtRequestFilter(UserDetailsService userDetailsService) {
-        this.userDetailsService = userDetailsService;
+    public JwtRequestFilter(TokenVersionService tokenVersionService,
+            @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.verified-cache.max-ttl-ms:3600000}") long maxTtlMillis) {
+        this.tokenVersionService = tokenVersionService;
+        this.maxTtlNanos = maxTtlMillis * 1_000_000L;
+        this.verifiedTokens = maxSize > 0
+                ? Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new UntilTokenExpiry()).build()
+                : null;
     }
 
     @Override
@@ -39,27 +79,119 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
         
         logger.debug("Processing request: {} {}", request.getMethod(), request.getRequestURI());
-        logger.debug("Authorization Header: {}", authorizationHeader);
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(jwt).getBody().getSubject();
-            } catch (Exception e) {
-                logger.error("JWT parsing error: ", e);
-            }
+            token = verify(authorizationHeader.substring(7));
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities());
-            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (tokenVersionService.isCurrent(token.username, token.version)) {
+                UserDetails userDetails = new User(token.username, "", token.authorities);
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            } else {
+                logger.warn("Rejected revoked or outdated token for user {}", token.username);
+            }
         }
         chain.doFilter(request, response);
     }
+
+    private VerifiedToken verify(String jwt) {
+        if (verifiedTokens == null) {
+            return parse(jwt);
+        }
+        String digest = digest(jwt);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        // Failed verifications are not cached, so a bad token costs the same as before.
+        VerifiedToken verified = parse(jwt);
+        if (verified != null) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String jwt) {
+        Claims claims;
+        try {
+            claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(jwt).getBody();
+        } catch (ExpiredJwtException e) {
+            logger.debug("Expired JWT for user {}", e.getClaims().getSubject());
+            return null;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Rejected invalid JWT: {}", e.getMessage());
+            return null;
+        }
+        if (claims.getSubject() == null) {
+            return null;
+        }
+        Integer version = claims.get("ver", Integer.class);
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(claims.getSubject(), version != null ? version : UNVERSIONED, authoritiesOf(claims),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+    }
+
+    private static String digest(String jwt) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static List<GrantedAuthority> authoritiesOf(Claims claims) {
+        Object roles = claims.get("roles");
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (roles instanceof Collection<?> values) {
+            for (Object role : values) {
+                authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+            }
+        }
+        return List.copyOf(authorities);
+    }
+
+    // The verified claims the filter needs; shared between requests, so immutable.
+    private static final class VerifiedToken {
+        private final String username;
+        private final int version;
+        private final List<GrantedAuthority> authorities;
+        private final long expiresAtMillis;
+
+        private VerifiedToken(String username, int version, List<GrantedAuthority> authorities,
+                long expiresAtMillis) {
+            this.username = username;
+            this.version = version;
+            this.authorities = authorities;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Drops an entry when its token expires, capped so tokens without exp do not stay forever.
+    private final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long remainingMillis = token.expiresAtMillis - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                return 0;
+            }
+            return remainingMillis >= maxTtlNanos / 1_000_000L ? maxTtlNanos : remainingMillis * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.byteandblog.config;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * News aggregation settings, bound from {@code news.*}. Each entry in
+ * {@code news.feeds} is an RSS/Atom feed with the source name shown on its
+ * articles; the name is optional and defaults to the feed's host.
+ */
+@Component
+@ConfigurationProperties(prefix = "news")
+public class NewsProperties {
+
+    private List<Feed> feeds = new ArrayList<>();
+    private long staleAfterMs = 600000;
+    private long retryBackoffMs = 30000;
+    private long fetchTimeoutMs = 10000;
+    private int maxArticles = 100;
+
+    public List<Feed> getFeeds() {
+        return feeds;
+    }
+
+    public void setFeeds(List<Feed> feeds) {
+        this.feeds = feeds;
+    }
+
+    public long getStaleAfterMs() {
+        return staleAfterMs;
+    }
+
+    public void setStaleAfterMs(long staleAfterMs) {
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public long getFetchTimeoutMs() {
+        return fetchTimeoutMs;
+    }
+
+    public void setFetchTimeoutMs(long fetchTimeoutMs) {
+        this.fetchTimeoutMs = fetchTimeoutMs;
+    }
+
+    public int getMaxArticles() {
+        return maxArticles;
+    }
+
+    public void setMaxArticles(int maxArticles) {
+        this.maxArticles = maxArticles;
+    }
+
+    public static class Feed {
+        private String name;
+        private String url;
+        private Long timeoutMs;
+
+        public Feed() {
+        }
+
+        public Feed(String name, String url) {
+            this.name = name;
+            this.url = url;
+        }
+
+        /** The configured name, or the feed's host when none is set. */
+        public String getName() {
+            if (name != null && !name.isBlank()) {
+                return name;
+            }
+            try {
+                String host = url == null ? null : URI.create(url).getHost();
+                return host != null ? host : String.valueOf(url);
+            } catch (IllegalArgumentException e) {
+                return url;
+            }
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public Long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(Long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.byteandblog.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.byteandblog.config.RateLimitProperties.Limit;
+import com.byteandblog.config.RateLimitProperties.Rule;
+import com.byteandblog.service.RateLimiter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Applies the {@code rate-limit.rules} to matching requests and answers 429
+ * with {@code Retry-After} when a bucket is empty. It runs in the security
+ * chain right after the JWT filter, so an authenticated caller's account is
+ * known and nothing in the controllers or the database is touched for a
+ * rejected request. For anonymous endpoints such as login, the account is
+ * read from a small JSON body and the body is replayed to the controller.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    // Larger bodies are not buffered; such requests are only limited per IP.
+    private static final int MAX_BUFFERED_BODY = 16 * 1024;
+    private static final byte[] TOO_MANY_REQUESTS = "{\"status\":\"error\",\"message\":\"Too many requests, please slow down\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final List<CompiledRule> rules = new ArrayList<>();
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        for (Rule rule : properties.getRules()) {
+            rules.add(new CompiledRule(rule, new AntPathRequestMatcher(rule.getPath(), rule.getMethod())));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        for (CompiledRule compiled : rules) {
+            if (!compiled.matcher.matches(request)) {
+                continue;
+            }
+            Rule rule = compiled.rule;
+            long wait = acquire(rule, "ip", request.getRemoteAddr(), rule.getPerIp());
+            if (wait == 0 && isLimited(rule.getPerAccount())) {
+                String account = currentAccount();
+                if (account == null && rule.getAccountField() != null) {
+                    BufferedBodyRequest buffered = BufferedBodyRequest.wrap(request);
+                    if (buffered != null) {
+                        request = buffered;
+                        account = buffered.readField(rule.getAccountField());
+                    }
+                }
+                if (account != null) {
+                    wait = acquire(rule, "account", account.toLowerCase(Locale.ROOT), rule.getPerAccount());
+                }
+            }
+            if (wait > 0) {
+                reject(response, wait);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private long acquire(Rule rule, String keyType, String key, Limit limit) {
+        if (!isLimited(limit) || key == null) {
+            return 0;
+        }
+        long wait = rateLimiter.tryAcquire(rule.getName() + ":" + keyType + ":" + key, limit.getCapacity(),
+                limit.getPeriodMs() * 1000);
+        if (wait > 0) {
+            meterRegistry.counter("rate-limit.rejected", "rule", rule.getName(), "key", keyType).increment();
+            logger.warn("Rate limit {} exceeded for {} {}", rule.getName(), keyType, key);
+        }
+        return wait;
+    }
+
+    private static boolean isLimited(Limit limit) {
+        return limit != null && limit.getCapacity() > 0 && limit.getPeriodMs() > 0;
+    }
+
+    private static String currentAccount() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static void reject(HttpServletResponse response, long waitMicros) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitMicros + 999_999) / 1_000_000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS);
+    }
+
+    private static final class CompiledRule {
+        private final Rule rule;
+        private final AntPathRequestMatcher matcher;
+
+        private CompiledRule(Rule rule, AntPathRequestMatcher matcher) {
+            this.rule = rule;
+            this.matcher = matcher;
+        }
+    }
+
+    // Holds a small request body in memory so it can be inspected here and read again by the controller.
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static BufferedBodyRequest wrap(HttpServletRequest request) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length < 0 || length > MAX_BUFFERED_BODY
+                    || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType(request))) {
+                return null;
+            }
+            return new BufferedBodyRequest(request, request.getInputStream().readNBytes((int) length));
+        }
+
+        private static MediaType contentType(HttpServletRequest request) {
+            try {
+                return request.getContentType() != null ? MediaType.parseMediaType(request.getContentType()) : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        // Top-level string field only; anything unexpected means no account key.
+        String readField(String field) {
+            try (JsonParser parser = JSON.createParser(body)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (field.equals(name) && value == JsonToken.VALUE_STRING) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+            } catch (IOException e) {
+                logger.debug("Could not read {} from request body: {}", field, e.getMessage());
+            }
+            return null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available at once and stays ready.
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
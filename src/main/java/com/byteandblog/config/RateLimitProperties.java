@@ -0,0 +1,133 @@
+package com.byteandblog.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limiting settings, bound from {@code rate-limit.*}. Each rule matches a
+ * method and path pattern and may limit per client IP, per account, or both;
+ * a limit allows {@code capacity} requests at once, refilled evenly over
+ * {@code period-ms}.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxKeys = 100000;
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static class Rule {
+        private String name;
+        private String method;
+        private String path;
+        private Limit perIp;
+        private Limit perAccount;
+        // JSON field naming the account when the request is not authenticated, e.g. "username" on login.
+        private String accountField;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Limit getPerIp() {
+            return perIp;
+        }
+
+        public void setPerIp(Limit perIp) {
+            this.perIp = perIp;
+        }
+
+        public Limit getPerAccount() {
+            return perAccount;
+        }
+
+        public void setPerAccount(Limit perAccount) {
+            this.perAccount = perAccount;
+        }
+
+        public String getAccountField() {
+            return accountField;
+        }
+
+        public void setAccountField(String accountField) {
+            this.accountField = accountField;
+        }
+    }
+
+    public static class Limit {
+        private int capacity;
+        private long periodMs;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, long periodMs) {
+            this.capacity = capacity;
+            this.periodMs = periodMs;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public long getPeriodMs() {
+            return periodMs;
+        }
+
+        public void setPeriodMs(long periodMs) {
+            this.periodMs = periodMs;
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package com.byteandblog.config;
 
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 @Configuration
 public class ResourceWebConfig implements WebMvcConfigurer {
+    // Upload URLs are named after their content hash, so a URL never changes content.
+    private static final CacheControl UPLOAD_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+
+    // The React build puts a content hash in every file name under /static.
+    private static final CacheControl ASSET_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
@@ -14,6 +29,16 @@ public class ResourceWebConfig implements WebMvcConfigurer {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry
             .addResourceHandler("/uploads/**")
-            .addResourceLocations("file:" + uploadDir + "/");
+            .addResourceLocations("file:" + uploadDir + "/")
+            .setCacheControl(UPLOAD_CACHE_CONTROL);
+
+        // Serves the .br/.gz siblings written at build time when the client accepts them.
+        registry
+            .addResourceHandler("/static/**")
+            .addResourceLocations("classpath:/static/static/")
+            .setCacheControl(ASSET_CACHE_CONTROL)
+            .resourceChain(true)
+            .addResolver(new EncodedResourceResolver())
+            .addResolver(new PathResourceResolver());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.byteandblog.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -22,7 +23,8 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtRequestFilter jwtRequestFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtRequestFilter jwtRequestFilter,
+            RateLimitFilter rateLimitFilter) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .cors(withDefaults -> {})
@@ -39,14 +41,21 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/blog", "/api/blog/**", "/api/portfolio","/api/comments/**","/api/news/**").permitAll()
                 // Allow public endpoints
                 .requestMatchers("/api/auth/**", "/api/contact").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/contact/export").hasRole("ADMIN")
+                // Actuator: health is public, metrics and cache stats are admin only
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Restrict blog and portfolio creation to ROLE_ADMIN
-                .requestMatchers(HttpMethod.POST, "/api/blog").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/blog", "/api/blog/import").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/portfolio").hasRole("ADMIN")
+                .requestMatchers("/api/uploads/**").hasRole("ADMIN")
                 // Require authentication for all other requests
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+            // After authentication so per-account limits see the caller, before any controller work
+            .addFilterAfter(rateLimitFilter, JwtRequestFilter.class)
             .securityMatcher(request -> {
                 String path = request.getServletPath();
                 return !(path.startsWith("/Uploads/") || path.startsWith("/uploads/"));
@@ -66,8 +75,9 @@ public class SecurityConfig {
         return source;
     }
 
+    // Raising the strength takes effect for existing users as they log in (see PasswordHashingService).
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
\ No newline at end of file
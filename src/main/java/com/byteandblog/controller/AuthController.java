@@ -3,23 +3,31 @@ package com.byteandblog.controller;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.byteandblog.entity.OutboxMail;
 import com.byteandblog.entity.User;
 import com.byteandblog.repository.UserRepository;
+import com.byteandblog.service.MailOutboxService;
 import com.byteandblog.service.OtpService;
+import com.byteandblog.service.PasswordHashingService;
+import com.byteandblog.service.TokenVersionService;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -33,55 +41,82 @@ public class AuthController {
 	@Autowired
 	private UserRepository userRepository;
 
+	// Hashing runs off the request threads; these endpoints complete asynchronously.
 	@Autowired
-	private PasswordEncoder passwordEncoder;
+	private PasswordHashingService passwordHashingService;
 
+	// Saving the result is blocking JDBC, so it runs here and the hashing workers only hash.
 	@Autowired
-	private JavaMailSender mailSender;
+	@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	private Executor taskExecutor;
+
+	@Autowired
+	private MailOutboxService mailOutboxService;
 
 	@Autowired
 	private OtpService otpService;
 
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
 	@Value("${jwt.secret}")
 	private String jwtSecret;
 
 	@SuppressWarnings("serial")
 	@PostMapping("/register")
-	public ResponseEntity<?> register(@RequestBody User user) {
+	public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
 		logger.info("Register request for username: {}", user.getUsername());
 		if (userRepository.findByUsername(user.getUsername()).isPresent()) {
 			logger.warn("Registration failed: Username {} already exists", user.getUsername());
-			return ResponseEntity.badRequest().body("Username already exists");
+			return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username already exists"));
+		}
+		try {
+			return passwordHashingService.encode(user.getPassword()).thenApplyAsync(hash -> {
+				user.setPassword(hash);
+				user.setTokenVersion(0);
+				user.setRoles(new HashSet<>() {
+					{
+						add("ROLE_USER");
+					}
+				});
+				userRepository.save(user);
+				logger.info("User {} registered successfully", user.getUsername());
+				return ResponseEntity.ok("User registered successfully");
+			}, taskExecutor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.completedFuture(busy());
 		}
-		user.setPassword(passwordEncoder.encode(user.getPassword()));
-		user.setRoles(new HashSet<>() {
-			{
-				add("ROLE_USER");
-			}
-		});
-		userRepository.save(user);
-		logger.info("User {} registered successfully", user.getUsername());
-		return ResponseEntity.ok("User registered successfully");
 	}
 
 	@PostMapping("/login")
-	public ResponseEntity<?> login(@RequestBody User loginUser) {
+	public CompletableFuture<ResponseEntity<?>> login(@RequestBody User loginUser) {
 		logger.info("Login request for username: {}", loginUser.getUsername());
 		User user = userRepository.findByUsername(loginUser.getUsername()).orElseThrow(() -> {
 			logger.error("Login failed: User {} not found", loginUser.getUsername());
 			return new RuntimeException("User not found");
 		});
-		if (passwordEncoder.matches(loginUser.getPassword(), user.getPassword())) {
-			String token = Jwts.builder().setSubject(user.getUsername()).claim("roles", user.getRoles()) // Include
-																											// roles in
-																											// the token
-					.setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 86400000))
-					.signWith(SignatureAlgorithm.HS512, jwtSecret).compact();
-			logger.info("User {} logged in successfully", user.getUsername());
-			return ResponseEntity.ok(new JwtResponse(token, user.getId()));
-		}
-		logger.warn("Login failed: Invalid credentials for user {}", loginUser.getUsername());
-		return ResponseEntity.status(401).body("Invalid credentials");
+		try {
+			return passwordHashingService.verify(loginUser.getPassword(), user.getPassword())
+					.<ResponseEntity<?>>thenApplyAsync(verification -> {
+						if (!verification.matches()) {
+							logger.warn("Login failed: Invalid credentials for user {}", loginUser.getUsername());
+							return ResponseEntity.status(401).body("Invalid credentials");
+						}
+						if (verification.getUpgradedHash() != null) {
+							userRepository.updatePassword(user.getUsername(), verification.getUpgradedHash());
+							logger.info("Rehashed password for user {} at the current cost", user.getUsername());
+						}
+						// Roles and token version are in the token, so requests are authenticated without a user lookup
+						String token = Jwts.builder().setSubject(user.getUsername()).claim("roles", user.getRoles())
+								.claim("ver", user.getTokenVersion())
+								.setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 86400000))
+								.signWith(SignatureAlgorithm.HS512, jwtSecret).compact();
+						logger.info("User {} logged in successfully", user.getUsername());
+						return ResponseEntity.ok(new JwtResponse(token, user.getId()));
+					}, taskExecutor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.completedFuture(busy());
+		}
 	}
 
 	@PostMapping("/forgot-password")
@@ -93,20 +128,15 @@ public class AuthController {
 			return ResponseEntity.badRequest().body(new MessageResponse("error", "Email not found"));
 		}
 		String otp = otpService.generateOtp(request.getEmail());
-		try {
-			SimpleMailMessage message = new SimpleMailMessage();
-			message.setTo(request.getEmail());
-			message.setSubject("Password Reset OTP");
-			message.setText("Your OTP for password reset is: " + otp + "\nThis OTP is valid for 5 minutes.");
-			logger.info("Sending OTP email to: {}", request.getEmail());
-			mailSender.send(message);
-			logger.info("OTP email sent successfully to: {}", request.getEmail());
-			return ResponseEntity.ok(new MessageResponse("success", "OTP sent to your email"));
-		} catch (Exception e) {
-			logger.error("Failed to send OTP email to {}: {}", request.getEmail(), e.getMessage(), e);
-			return ResponseEntity.status(500)
-					.body(new MessageResponse("error", "Failed to send OTP: " + e.getMessage()));
+		if (otp == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "60")
+					.body(new MessageResponse("error", "Too many pending password resets, please try again later"));
 		}
+		// Queued rather than sent inline; OTP mail goes ahead of everything else in the outbox.
+		mailOutboxService.enqueue(request.getEmail(), "Password Reset OTP",
+				"Your OTP for password reset is: " + otp + "\nThis OTP is valid for 5 minutes.", OutboxMail.PRIORITY_OTP);
+		logger.info("OTP email queued for: {}", request.getEmail());
+		return ResponseEntity.ok(new MessageResponse("success", "OTP sent to your email"));
 	}
 
 	@PostMapping("/verify-otp")
@@ -122,22 +152,37 @@ public class AuthController {
 	}
 
 	@PostMapping("/reset-password")
-	public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest request) {
+	public CompletableFuture<ResponseEntity<?>> resetPassword(@RequestBody ResetPasswordRequest request) {
 		logger.info("Reset password request for email: {}", request.getEmail());
 		Optional<User> optionalUser = userRepository.findByEmail(request.getEmail());
 		if (!optionalUser.isPresent()) {
 			logger.warn("Reset password failed: Email {} not found", request.getEmail());
-			return ResponseEntity.badRequest().body(new MessageResponse("error", "Email not found"));
+			return CompletableFuture.completedFuture(
+					ResponseEntity.badRequest().body(new MessageResponse("error", "Email not found")));
 		}
 		User user = optionalUser.get();
 		if (!request.getPassword().equals(request.getConfirmPassword())) {
 			logger.warn("Reset password failed: Passwords do not match for email: {}", request.getEmail());
-			return ResponseEntity.badRequest().body(new MessageResponse("error", "Passwords do not match"));
+			return CompletableFuture.completedFuture(
+					ResponseEntity.badRequest().body(new MessageResponse("error", "Passwords do not match")));
 		}
-		user.setPassword(passwordEncoder.encode(request.getPassword()));
-		userRepository.save(user);
-		logger.info("Password reset successfully for email: {}", request.getEmail());
-		return ResponseEntity.ok(new MessageResponse("success", "Password reset successfully"));
+		try {
+			return passwordHashingService.encode(request.getPassword()).thenApplyAsync(hash -> {
+				// Only the password column: saving the entity loaded before hashing would write back a stale tokenVersion.
+				userRepository.updatePassword(user.getUsername(), hash);
+				tokenVersionService.revokeTokens(user.getUsername());
+				logger.info("Password reset successfully for email: {}", request.getEmail());
+				return ResponseEntity.ok(new MessageResponse("success", "Password reset successfully"));
+			}, taskExecutor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.completedFuture(busy());
+		}
+	}
+
+	// The hashing queue is full; tell the client to back off instead of queueing behind the burst.
+	private static ResponseEntity<?> busy() {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(new MessageResponse("error", "Server is busy, please try again shortly"));
 	}
 
 	static class JwtResponse {
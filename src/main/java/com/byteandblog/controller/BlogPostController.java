@@ -1,13 +1,25 @@
 package com.byteandblog.controller;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,10 +29,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.byteandblog.config.CacheConfig;
 import com.byteandblog.entity.BlogPost;
 import com.byteandblog.repository.BlogPostRepository;
+import com.byteandblog.repository.BlogPostSummary;
+import com.byteandblog.repository.BlogPostVersion;
+import com.byteandblog.service.BlogImportService;
+import com.byteandblog.service.BlogImportService.ImportResult;
+import com.byteandblog.service.BlogSearchService;
+import com.byteandblog.service.BlogSearchService.SearchHit;
+import com.byteandblog.service.PostContentService;
+import com.byteandblog.service.TrendingService;
+import com.byteandblog.service.TrendingService.TrendingPost;
+import com.byteandblog.service.ViewCountService;
 
 import jakarta.validation.Valid;
 
@@ -31,34 +56,149 @@ public class BlogPostController {
 
     private static final Logger logger = LoggerFactory.getLogger(BlogPostController.class);
 
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final CacheControl TRENDING_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(30))
+            .cachePublic();
+
+    // Lists always revalidate; single posts may be reused briefly, and a little longer by shared caches.
+    private static final CacheControl LIST_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    private static final CacheControl POST_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1))
+            .sMaxAge(Duration.ofMinutes(5)).cachePublic();
+
     @Autowired
     private BlogPostRepository blogPostRepository;
 
+    @Autowired
+    private PostContentService postContentService;
+
+    @Autowired
+    private BlogSearchService blogSearchService;
+
+    @Autowired
+    private BlogImportService blogImportService;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    @Autowired
+    private TrendingService trendingService;
+
     @GetMapping
-    public Page<BlogPost> getAllPosts(Pageable pageable) {
+    public ResponseEntity<Page<BlogPost>> getAllPosts(Pageable pageable, WebRequest request) {
         logger.info("Fetching all blog posts, page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        BlogPostVersion version = blogPostRepository.findCollectionVersion();
+        String etag = EntityTags.of(version.getUpdatedAt(), version.getPostCount(), version.getCommentCount());
+        long lastModified = EntityTags.lastModified(version.getUpdatedAt());
+        if (request.checkNotModified(etag, lastModified)) {
+            logger.debug("Blog post list not modified, page: {}", pageable.getPageNumber());
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(LIST_CACHE_CONTROL).build();
+        }
         Page<BlogPost> posts = blogPostRepository.findAll(pageable);
         logger.debug("Retrieved {} blog posts", posts.getTotalElements());
-        return posts;
+        return EntityTags.ok(LIST_CACHE_CONTROL, etag, lastModified).body(posts);
+    }
+
+    @GetMapping("/summaries")
+    public Page<BlogPostSummary> getPostSummaries(
+            @PageableDefault(sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        logger.info("Fetching blog post summaries, page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        Page<BlogPostSummary> summaries = blogPostRepository.findAllSummaries(pageable);
+        logger.debug("Retrieved {} blog post summaries", summaries.getNumberOfElements());
+        return summaries;
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<BlogPostSummary>> getPostFeed(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        logger.info("Fetching blog post feed, after: {}, size: {}", after, pageSize);
+        // Fetch one extra row to learn whether another page exists without counting.
+        Limit limit = Limit.of(pageSize + 1);
+        List<BlogPostSummary> rows;
+        if (after == null || after.isBlank()) {
+            rows = blogPostRepository.findLatestSummaries(limit);
+        } else {
+            KeysetCursor cursor;
+            try {
+                cursor = KeysetCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Rejected malformed blog feed cursor: {}", after);
+                return ResponseEntity.badRequest().build();
+            }
+            rows = blogPostRepository.findSummariesBefore(cursor.getCreatedAt(), cursor.getId(), limit);
+        }
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            BlogPostSummary last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        logger.debug("Retrieved {} blog posts for feed", rows.size());
+        return ResponseEntity.ok(new CursorPage<>(rows, nextCursor));
+    }
+
+    @GetMapping("/search")
+    public List<SearchHit> searchPosts(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Searching blog posts for: {}", query);
+        List<SearchHit> hits = blogSearchService.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        logger.debug("Search for '{}' matched {} blog posts", query, hits.size());
+        return hits;
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPost>> getTrendingPosts(@RequestParam(defaultValue = "10") int limit) {
+        logger.info("Fetching trending blog posts, limit: {}", limit);
+        List<TrendingPost> trending = trendingService.getTrending(Math.max(1, limit));
+        return ResponseEntity.ok().cacheControl(TRENDING_CACHE_CONTROL).body(trending);
     }
 
     @PostMapping
+    @CacheEvict(value = { CacheConfig.BLOG_POSTS, CacheConfig.BLOG_POST_SUMMARIES, CacheConfig.BLOG_POST_FEED },
+            allEntries = true)
     public BlogPost createPost(@Valid @RequestBody BlogPost post) {
         logger.info("Creating new blog post with title: {}", post.getTitle());
         post.setCreatedAt(LocalDateTime.now());
         post.setUpdatedAt(LocalDateTime.now());
+        postContentService.applyDerivedFields(post);
         BlogPost savedPost = blogPostRepository.save(post);
+        blogSearchService.index(savedPost);
         logger.info("Blog post created successfully with ID: {}", savedPost.getId());
         return savedPost;
     }
 
+    // NDJSON, one post with its comments per line; admin only, see SecurityConfig.
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @CacheEvict(value = { CacheConfig.BLOG_POSTS, CacheConfig.BLOG_POST_SUMMARIES, CacheConfig.BLOG_POST_FEED },
+            allEntries = true)
+    public ImportResult importPosts(InputStream body) throws IOException {
+        logger.info("Starting bulk blog import");
+        return blogImportService.importPosts(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<BlogPost> getPostById(@PathVariable Long id) {
+    public ResponseEntity<BlogPost> getPostById(@PathVariable Long id, WebRequest request) {
         logger.info("Fetching blog post with ID: {}", id);
-        return blogPostRepository.findById(id)
+        BlogPostVersion version = blogPostRepository.findVersionById(id).orElse(null);
+        if (version == null) {
+            logger.warn("Blog post with ID {} not found", id);
+            return ResponseEntity.notFound().build();
+        }
+        viewCountService.recordView(id);
+        trendingService.recordView(id);
+        // Views are left out on purpose: they change on every flush and would defeat revalidation.
+        String etag = EntityTags.of(id, version.getUpdatedAt(), version.getCommentCount());
+        long lastModified = EntityTags.lastModified(version.getUpdatedAt());
+        if (request.checkNotModified(etag, lastModified)) {
+            logger.debug("Blog post with ID {} not modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(POST_CACHE_CONTROL).build();
+        }
+        return blogPostRepository.findDetailById(id)
                 .map(post -> {
                     logger.debug("Blog post found: {}", post.getTitle());
-                    return ResponseEntity.ok(post);
+                    return EntityTags.ok(POST_CACHE_CONTROL, etag, lastModified).body(post);
                 })
                 .orElseGet(() -> {
                     logger.warn("Blog post with ID {} not found", id);
@@ -67,6 +207,10 @@ public class BlogPostController {
     }
 
     @PutMapping("/{id}")
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BLOG_POST, key = "#id"),
+            @CacheEvict(value = { CacheConfig.BLOG_POSTS, CacheConfig.BLOG_POST_SUMMARIES,
+                    CacheConfig.BLOG_POST_FEED }, allEntries = true) })
     public ResponseEntity<BlogPost> updatePost(@PathVariable Long id, @Valid @RequestBody BlogPost updatedPost) {
         logger.info("Updating blog post with ID: {}", id);
         return blogPostRepository.findById(id)
@@ -75,7 +219,9 @@ public class BlogPostController {
                     post.setTitle(updatedPost.getTitle());
                     post.setContent(updatedPost.getContent());
                     post.setUpdatedAt(LocalDateTime.now());
+                    postContentService.applyDerivedFields(post);
                     BlogPost savedPost = blogPostRepository.save(post);
+                    blogSearchService.index(savedPost);
                     logger.info("Blog post updated successfully with ID: {}", savedPost.getId());
                     return ResponseEntity.ok(savedPost);
                 })
@@ -86,10 +232,15 @@ public class BlogPostController {
     }
 
     @DeleteMapping("/{id}")
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.BLOG_POST, key = "#id"),
+            @CacheEvict(value = { CacheConfig.BLOG_POSTS, CacheConfig.BLOG_POST_SUMMARIES,
+                    CacheConfig.BLOG_POST_FEED }, allEntries = true) })
     public ResponseEntity<Void> deletePost(@PathVariable Long id) {
         logger.info("Deleting blog post with ID: {}", id);
         if (blogPostRepository.existsById(id)) {
             blogPostRepository.deleteById(id);
+            blogSearchService.remove(id);
             logger.info("Blog post with ID {} deleted successfully", id);
             return ResponseEntity.ok().build();
         }
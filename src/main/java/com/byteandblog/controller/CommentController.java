@@ -6,7 +6,13 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,10 +20,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.byteandblog.config.CacheConfig;
 import com.byteandblog.entity.Comment;
+import com.byteandblog.repository.BlogPostRepository;
 import com.byteandblog.repository.CommentRepository;
+import com.byteandblog.service.TrendingService;
 
 import jakarta.validation.Valid;
 
@@ -28,35 +38,128 @@ public class CommentController {
 
     private static final Logger logger = LoggerFactory.getLogger(CommentController.class);
 
+    // The unpaged endpoint is kept for existing clients but can no longer return an unbounded list.
+    private static final int MAX_LEGACY_COMMENTS = 500;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TrendingService trendingService;
+
     @GetMapping("/post/{postId}")
     public List<Comment> getCommentsByPost(@PathVariable Long postId) {
         logger.info("Fetching comments for post ID: {}", postId);
-        List<Comment> comments = commentRepository.findByPostId(postId);
+        List<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtAscIdAsc(postId,
+                Limit.of(MAX_LEGACY_COMMENTS));
         logger.debug("Retrieved {} comments for post ID: {}", comments.size(), postId);
         return comments;
     }
 
+    @GetMapping("/post/{postId}/page")
+    public ResponseEntity<CursorPage<Comment>> getCommentPage(@PathVariable Long postId,
+            @RequestParam(defaultValue = "newest") String order,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        boolean newestFirst = !"oldest".equalsIgnoreCase(order);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        logger.info("Fetching comment page for post ID: {}, order: {}, size: {}", postId, order, pageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Comment> rows;
+        if (after == null || after.isBlank()) {
+            rows = newestFirst
+                    ? commentRepository.findByPostIdOrderByCreatedAtDescIdDesc(postId, limit)
+                    : commentRepository.findByPostIdOrderByCreatedAtAscIdAsc(postId, limit);
+        } else {
+            KeysetCursor cursor;
+            try {
+                cursor = KeysetCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Rejected malformed comment cursor: {}", after);
+                return ResponseEntity.badRequest().build();
+            }
+            rows = newestFirst
+                    ? commentRepository.findByPostIdBefore(postId, cursor.getCreatedAt(), cursor.getId(), limit)
+                    : commentRepository.findByPostIdAfter(postId, cursor.getCreatedAt(), cursor.getId(), limit);
+        }
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Comment last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        logger.debug("Retrieved {} comments for post ID: {}", rows.size(), postId);
+        return ResponseEntity.ok(new CursorPage<>(rows, nextCursor));
+    }
+
     @PostMapping
+    @Transactional
     public Comment createComment(@Valid @RequestBody Comment comment) {
-        logger.info("Creating new comment for post ID: {}", comment.getId());
+        Long postId = comment.getPost() != null ? comment.getPost().getId() : null;
+        logger.info("Creating new comment for post ID: {}", postId);
         comment.setCreatedAt(LocalDateTime.now());
         Comment savedComment = commentRepository.save(comment);
+        if (postId != null) {
+            blogPostRepository.incrementCommentCount(postId);
+            afterCommit(() -> {
+                evictPostCaches(postId);
+                trendingService.recordComment(postId);
+            });
+        }
         logger.info("Comment created successfully with ID: {}", savedComment.getId());
         return savedComment;
     }
 
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteComment(@PathVariable Long id) {
         logger.info("Deleting comment with ID: {}", id);
-        if (commentRepository.existsById(id)) {
-            commentRepository.deleteById(id);
-            logger.info("Comment with ID {} deleted successfully", id);
-            return ResponseEntity.ok().build();
+        return commentRepository.findById(id)
+                .map(comment -> {
+                    commentRepository.delete(comment);
+                    if (comment.getPost() != null) {
+                        Long postId = comment.getPost().getId();
+                        blogPostRepository.decrementCommentCount(postId);
+                        afterCommit(() -> evictPostCaches(postId));
+                    }
+                    logger.info("Comment with ID {} deleted successfully", id);
+                    return ResponseEntity.ok().<Void>build();
+                })
+                .orElseGet(() -> {
+                    logger.warn("Comment with ID {} not found for deletion", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    // Evicting before commit would let a concurrent read cache the old count again until the TTL.
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Posts and every list view carry the comment count.
+    private void evictPostCaches(Long postId) {
+        Cache posts = cacheManager.getCache(CacheConfig.BLOG_POST);
+        if (posts != null) {
+            posts.evict(postId);
+        }
+        for (String name : new String[] { CacheConfig.BLOG_POSTS, CacheConfig.BLOG_POST_SUMMARIES,
+                CacheConfig.BLOG_POST_FEED }) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
         }
-        logger.warn("Comment with ID {} not found for deletion", id);
-        return ResponseEntity.notFound().build();
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.byteandblog.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,19 +11,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.byteandblog.entity.ContactMessage;
+import com.byteandblog.entity.OutboxMail;
 import com.byteandblog.repository.ContactMessageRepository;
+import com.byteandblog.service.ContactExportService;
+import com.byteandblog.service.ContactExportService.Format;
+import com.byteandblog.service.MailOutboxService;
 
 import jakarta.validation.Valid;
 
@@ -35,18 +48,23 @@ public class ContactController {
     private ContactMessageRepository contactMessageRepository;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutboxService mailOutboxService;
+
+    @Autowired
+    private ContactExportService contactExportService;
 
     @Value("${spring.mail.username}")
     private String email;
 
+    // The notification mails are queued in the same transaction and sent in the background.
     @PostMapping
+    @Transactional
     public ResponseEntity<ContactMessage> createMessage(@Valid @RequestBody ContactMessage message) {
         logger.info("Creating new contact message from: {}", message.getEmail());
         message.setCreatedAt(LocalDateTime.now());
-        this.sendSelfMessage(message);
-        this.sendUserMessage(message);
         ContactMessage savedMessage = contactMessageRepository.save(message);
+        this.queueSelfMessage(savedMessage);
+        this.queueUserMessage(savedMessage);
         logger.info("Contact message created successfully with ID: {}", savedMessage.getId());
         return ResponseEntity.ok(savedMessage);
     }
@@ -59,6 +77,50 @@ public class ContactController {
         return messages;
     }
 
+    // Streams all messages, optionally within a createdAt range [from, to), without paging or counting.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return badRequest("Unsupported export format: " + format);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            return badRequest("'from' must be before 'to'");
+        }
+        logger.info("Exporting contact messages as {} (from: {}, to: {}, gzip: {})", exportFormat, from, to, gzip);
+
+        String fileName = "contact-messages." + exportFormat.name().toLowerCase(Locale.ROOT) + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == Format.CSV ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                contactExportService.export(out, exportFormat, from, to);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+            contactExportService.export(compressed, exportFormat, from, to);
+            compressed.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    // The handler only streams ResponseEntity<StreamingResponseBody>, so errors are streamed too.
+    private static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(out -> out.write(body));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ContactMessage> getMessageByID(@PathVariable Long id) {
         logger.info("Fetching contact message with ID: {}", id);
@@ -73,31 +135,15 @@ public class ContactController {
                 });
     }
 
-    private void sendSelfMessage(ContactMessage message) {
-        try {
-            SimpleMailMessage smtpmessage = new SimpleMailMessage();
-            smtpmessage.setTo(email);
-            smtpmessage.setSubject(message.getName() + " Sent you a Message!! ->");
-            smtpmessage.setText(message.getMessage() + "\n" + message.getEmail());
-            logger.info("Sending self notification email to: {}", email);
-            mailSender.send(smtpmessage);
-            logger.info("Self notification email sent successfully to: {}", email);
-        } catch (Exception e) {
-            logger.error("Failed to send self notification email to {}: {}", email, e.getMessage(), e);
-        }
+    private void queueSelfMessage(ContactMessage message) {
+        logger.info("Queueing self notification email to: {}", email);
+        mailOutboxService.enqueue(email, message.getName() + " Sent you a Message!! ->",
+                message.getMessage() + "\n" + message.getEmail(), OutboxMail.PRIORITY_NORMAL);
     }
 
-    private void sendUserMessage(ContactMessage message) {
-        try {
-            SimpleMailMessage smtpmessage = new SimpleMailMessage();
-            smtpmessage.setTo(message.getEmail());
-            smtpmessage.setSubject("Hi " + message.getName() + "!!!");
-            smtpmessage.setText("Thanks for Your Message, we will get back to you soon!!!");
-            logger.info("Sending confirmation email to user: {}", message.getEmail());
-            mailSender.send(smtpmessage);
-            logger.info("Confirmation email sent successfully to user: {}", message.getEmail());
-        } catch (Exception e) {
-            logger.error("Failed to send confirmation email to user {}: {}", message.getEmail(), e.getMessage(), e);
-        }
+    private void queueUserMessage(ContactMessage message) {
+        logger.info("Queueing confirmation email to user: {}", message.getEmail());
+        mailOutboxService.enqueue(message.getEmail(), "Hi " + message.getName() + "!!!",
+                "Thanks for Your Message, we will get back to you soon!!!", OutboxMail.PRIORITY_NORMAL);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.byteandblog.controller;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated list. {@code nextCursor} is null on the last
+ * slice; no total count is ever computed.
+ */
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.byteandblog.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Builds strong validators for conditional GETs from version columns rather
+ * than from the serialized body.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Object... versionParts) {
+        StringBuilder raw = new StringBuilder();
+        for (Object part : versionParts) {
+            raw.append(Objects.toString(part, "-")).append('|');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(raw.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static long lastModified(LocalDateTime... timestamps) {
+        LocalDateTime latest = null;
+        for (LocalDateTime timestamp : timestamps) {
+            if (timestamp != null && (latest == null || timestamp.isAfter(latest))) {
+                latest = timestamp;
+            }
+        }
+        return latest == null ? -1 : latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static ResponseEntity.BodyBuilder ok(CacheControl cacheControl, String etag, long lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(cacheControl).eTag(etag);
+        return lastModified < 0 ? builder : builder.lastModified(lastModified);
+    }
+}
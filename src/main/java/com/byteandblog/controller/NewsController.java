@@ -1,26 +1,25 @@
 package com.byteandblog.controller;
 
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
+import com.byteandblog.service.NewsFeedService;
+import com.byteandblog.service.NewsFeedService.NewsSnapshot;
 
 @CrossOrigin(origins = "https://byteandblog.onrender.com")
 @RestController
@@ -29,58 +28,70 @@ public class NewsController {
 
     private static final Logger logger = LoggerFactory.getLogger(NewsController.class);
 
-    @GetMapping("/top-headlines")
-    public ResponseEntity<?> getTopHeadlines() { // Removed @RequestParam parameters
-        try {
-            logger.info("Fetching top headlines");
-            // Fetch NPR RSS feed
-            String rssUrl = "https://www.npr.org/rss/rss.php?id=1001";
-            SyndFeedInput input = new SyndFeedInput();
-            SyndFeed feed = input.build(new XmlReader(new URL(rssUrl)));
+    private static final CacheControl HEADLINES_CACHE_CONTROL = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+    private static final byte[] UNAVAILABLE = "News feed is temporarily unavailable".getBytes(StandardCharsets.UTF_8);
 
-            // Get all articles
-            List<SyndEntry> entries = feed.getEntries();
-            int totalResults = entries.size();
-            List<Map<String, Object>> articles = new ArrayList<>();
+    @Autowired
+    private NewsFeedService newsFeedService;
 
-            // Pattern to extract image URL from content:encoded
-            Pattern imagePattern = Pattern.compile("<img src='(.*?)'");
+    // Writes the body encoded at refresh time; nothing is serialized per request.
+    @GetMapping("/top-headlines")
+    public ResponseEntity<byte[]> getTopHeadlines(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        logger.info("Fetching top headlines");
+        NewsSnapshot headlines = newsFeedService.getHeadlines();
+        if (headlines == null) {
+            logger.error("No news feed has been fetched successfully yet");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.TEXT_PLAIN)
+                    .body(UNAVAILABLE);
+        }
 
-            // Map all entries to articles
-            for (SyndEntry entry : entries) {
-                Map<String, Object> article = new HashMap<>();
-                article.put("title", entry.getTitle());
-                article.put("description", entry.getDescription() != null ? entry.getDescription().getValue() : "");
-                article.put("url", entry.getLink());
-                article.put("publishedAt", entry.getPublishedDate() != null ? entry.getPublishedDate().toString() : "");
-                article.put("source", Map.of("name", "NPR"));
-                article.put("author", entry.getAuthor());
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? headlines.getGzippedEtag() : headlines.getEtag();
+        if (request.checkNotModified(etag)) {
+            logger.debug("Headlines not modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(HEADLINES_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(HEADLINES_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag);
+        logger.debug("Serving {} cached headlines", headlines.getArticles().size());
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(headlines.getGzippedBody());
+        }
+        return response.body(headlines.getBody());
+    }
 
-                // Extract image URL from content:encoded
-                String contentEncoded = entry.getContents().isEmpty() ? "" : entry.getContents().get(0).getValue();
-                String urlToImage = null;
-                if (contentEncoded != null) {
-                    Matcher matcher = imagePattern.matcher(contentEncoded);
-                    if (matcher.find()) {
-                        urlToImage = matcher.group(1);
-                    }
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && !isPositiveQuality(param.substring(2))) {
+                    return false;
                 }
-                article.put("urlToImage", urlToImage);
-
-                articles.add(article);
             }
+            return true;
+        }
+        return false;
+    }
 
-            // Construct response in NewsAPI-compatible format
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "ok");
-            response.put("totalResults", totalResults);
-            response.put("articles", articles);
-
-            logger.info("Successfully fetched top headlines");
-            return ResponseEntity.ok(new ObjectMapper().writeValueAsString(response));
-        } catch (Exception e) {
-            logger.error("Failed to fetch top headlines: {}", e.getMessage(), e);
-            return ResponseEntity.status(500).body("Failed to fetch news: " + e.getMessage());
+    // A malformed q-value is treated like q=0 rather than failing the request.
+    private static boolean isPositiveQuality(String value) {
+        try {
+            return Double.parseDouble(value) > 0;
+        } catch (NumberFormatException e) {
+            return false;
         }
     }
 }
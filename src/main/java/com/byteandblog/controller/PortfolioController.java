@@ -1,11 +1,14 @@
 package com.byteandblog.controller;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,11 +18,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.byteandblog.entity.PortfolioItem;
 import com.byteandblog.repository.PortfolioItemRepository;
 import com.byteandblog.service.FileUploadService;
+import com.byteandblog.service.ImageVariantService;
 
 import jakarta.validation.Valid;
 
@@ -30,12 +35,18 @@ public class PortfolioController {
 
     private static final Logger logger = LoggerFactory.getLogger(PortfolioController.class);
 
+    // Items only change when their image variants are attached, and clients fall back to imageUrl until then.
+    private static final CacheControl ITEM_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic();
+
     @Autowired
     private PortfolioItemRepository portfolioItemRepository;
 
     @Autowired
     private FileUploadService fileUploadService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     @GetMapping
     public List<PortfolioItem> getAllItems() {
         logger.info("Fetching all portfolio items");
@@ -47,12 +58,23 @@ public class PortfolioController {
     @PostMapping
     public ResponseEntity<PortfolioItem> createItem(
             @Valid @RequestPart("item") PortfolioItem item,
-            @RequestPart("image") MultipartFile image) throws Exception {
+            @RequestPart(value = "image", required = false) MultipartFile image) throws Exception {
         logger.info("Creating new portfolio item with title: {}", item.getTitle());
         try {
-            item.setImageUrl(fileUploadService.uploadFile(image));
+            // Large media arrives through /api/uploads first; the item then just references the stored URL.
+            if (image != null && !image.isEmpty()) {
+                item.setImageUrl(fileUploadService.uploadFile(image));
+            } else if (!fileUploadService.isStoredUpload(item.getImageUrl())) {
+                logger.warn("Portfolio item {} has neither an image nor a stored upload URL", item.getTitle());
+                return ResponseEntity.badRequest().build();
+            }
+            item.setThumbnailUrl(null);
+            item.setCardUrl(null);
+            item.setFullUrl(null);
             item.setCreatedAt(LocalDateTime.now());
+            item.setUpdatedAt(null);
             PortfolioItem savedItem = portfolioItemRepository.save(item);
+            imageVariantService.generateVariants(savedItem.getId(), savedItem.getImageUrl());
             logger.info("Portfolio item created successfully with ID: {}", savedItem.getId());
             return ResponseEntity.ok(savedItem);
         } catch (Exception e) {
@@ -62,12 +84,19 @@ public class PortfolioController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PortfolioItem> getItemById(@PathVariable Long id) {
+    public ResponseEntity<PortfolioItem> getItemById(@PathVariable Long id, WebRequest request) {
         logger.info("Fetching portfolio item with ID: {}", id);
+        LocalDateTime version = portfolioItemRepository.findVersionById(id).orElse(null);
+        String etag = EntityTags.of(id, version);
+        long lastModified = EntityTags.lastModified(version);
+        if (version != null && request.checkNotModified(etag, lastModified)) {
+            logger.debug("Portfolio item with ID {} not modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(ITEM_CACHE_CONTROL).build();
+        }
         return portfolioItemRepository.findById(id)
                 .map(item -> {
                     logger.debug("Portfolio item found: {}", item.getTitle());
-                    return ResponseEntity.ok(item);
+                    return EntityTags.ok(ITEM_CACHE_CONTROL, etag, lastModified).body(item);
                 })
                 .orElseGet(() -> {
                     logger.warn("Portfolio item with ID {} not found", id);
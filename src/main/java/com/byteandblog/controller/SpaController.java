@@ -1,13 +1,64 @@
 package com.byteandblog.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.annotation.PostConstruct;
 
+/**
+ * Serves the SPA shell for every client-side route. index.html is read once at
+ * startup; browsers revalidate it on each navigation so a new deployment's
+ * asset hashes are picked up immediately, and get a 304 otherwise.
+ */
 @Controller
 public class SpaController {
 
-    @GetMapping({"/", "/{path:[^\\.]*}", "/{path:[^\\.]*}/{subPath:[^\\.]*}"})
-    public String redirect() {
-        return "forward:/index.html";
+    private static final Logger logger = LoggerFactory.getLogger(SpaController.class);
+
+    private static final CacheControl INDEX_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    private static final MediaType INDEX_CONTENT_TYPE = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private byte[] indexHtml;
+    private String etag;
+
+    @PostConstruct
+    void loadIndex() throws IOException {
+        ClassPathResource index = new ClassPathResource("static/index.html");
+        if (!index.exists()) {
+            logger.warn("static/index.html not found, SPA routes will return 404");
+            return;
+        }
+        try (InputStream in = index.getInputStream()) {
+            indexHtml = in.readAllBytes();
+        }
+        etag = "\"" + DigestUtils.md5DigestAsHex(indexHtml) + "\"";
+    }
+
+    @GetMapping({"/", "/index.html", "/{path:[^\\.]*}", "/{path:[^\\.]*}/{subPath:[^\\.]*}"})
+    public ResponseEntity<byte[]> index(WebRequest request) {
+        if (indexHtml == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(INDEX_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(INDEX_CONTENT_TYPE)
+                .cacheControl(INDEX_CACHE_CONTROL)
+                .eTag(etag)
+                .body(indexHtml);
     }
-}
\ No newline at end of file
+}
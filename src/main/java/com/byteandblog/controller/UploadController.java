@@ -0,0 +1,139 @@
+package com.byteandblog.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.byteandblog.service.FileUploadService;
+import com.byteandblog.service.FileUploadService.UploadStatus;
+
+/**
+ * Resumable chunked uploads for large media. A client starts an upload, PUTs
+ * each chunk as the raw request body at its byte offset (in any order, retrying
+ * freely), asks for the status to find missing chunks after an interruption,
+ * and completes the upload to get its /uploads URL.
+ */
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    @PostMapping
+    public ResponseEntity<?> startUpload(@RequestBody StartUploadRequest request) throws IOException {
+        logger.info("Starting chunked upload for {} ({} bytes)", request.getFileName(), request.getSize());
+        try {
+            UploadStatus status = fileUploadService.startChunkedUpload(request.getFileName(), request.getSize(),
+                    request.getSha256());
+            return ResponseEntity.status(HttpStatus.CREATED).body(status);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected chunked upload for {}: {}", request.getFileName(), e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // The body is consumed as a stream, so a chunk is never held in memory.
+    @PutMapping(path = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> putChunk(@PathVariable String uploadId, @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-Sha256", required = false) String chunkSha256,
+            InputStream body) throws IOException {
+        logger.debug("Receiving chunk at offset {} for upload {}", offset, uploadId);
+        try {
+            return ResponseEntity.ok(fileUploadService.writeChunk(uploadId, offset, body, chunkSha256));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected chunk at offset {} for upload {}: {}", offset, uploadId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadStatus> getUpload(@PathVariable String uploadId) throws IOException {
+        try {
+            return ResponseEntity.ok(fileUploadService.getChunkedUpload(uploadId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) throws IOException {
+        logger.info("Completing chunked upload {}", uploadId);
+        try {
+            String url = fileUploadService.completeChunkedUpload(uploadId);
+            logger.info("Chunked upload {} stored as {}", uploadId, url);
+            return ResponseEntity.ok(Map.of("url", url));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            logger.warn("Chunked upload {} could not be completed: {}", uploadId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) throws IOException {
+        try {
+            fileUploadService.abortChunkedUpload(uploadId);
+            return ResponseEntity.ok().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    static class StartUploadRequest {
+        private String fileName;
+        private long size;
+        private String sha256;
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public void setFileName(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public void setSha256(String sha256) {
+            this.sha256 = sha256;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.byteandblog.entity;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(indexes = { @Index(name = "idx_created_at", columnList = "createdAt") })
+@Table(indexes = { @Index(name = "idx_created_at", columnList = "createdAt"),
+		@Index(name = "idx_updated_at", columnList = "updatedAt") })
 public class BlogPost {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,12 +25,31 @@ public class BlogPost {
 
 	private Long authorId;
 
+	@Column(length = 500)
+	private String excerpt;
+
+	private Integer readingTimeMinutes;
+
+	// Maintained only by CommentController's counter updates, never by entity saves.
+	@ColumnDefault("0")
+	@Column(nullable = false, updatable = false)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private long commentCount;
+
+	// Written in batches by ViewCountService, never by entity saves. Not part of the ETag, so a
+	// cached post may show a count up to the cache TTL old.
+	@ColumnDefault("0")
+	@Column(nullable = false, updatable = false)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private long viewCount;
+
 	private LocalDateTime createdAt;
 
 	private LocalDateTime updatedAt;
 
+	// Comments are paged through CommentController instead of being embedded in the post.
 	@OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
-	@JsonManagedReference
+	@JsonIgnore
 	private List<Comment> comments;
 
 	// Getters and Setters
@@ -63,6 +85,38 @@ public class BlogPost {
 		this.authorId = authorId;
 	}
 
+	public String getExcerpt() {
+		return excerpt;
+	}
+
+	public void setExcerpt(String excerpt) {
+		this.excerpt = excerpt;
+	}
+
+	public Integer getReadingTimeMinutes() {
+		return readingTimeMinutes;
+	}
+
+	public void setReadingTimeMinutes(Integer readingTimeMinutes) {
+		this.readingTimeMinutes = readingTimeMinutes;
+	}
+
+	public long getCommentCount() {
+		return commentCount;
+	}
+
+	public void setCommentCount(long commentCount) {
+		this.commentCount = commentCount;
+	}
+
+	public long getViewCount() {
+		return viewCount;
+	}
+
+	public void setViewCount(long viewCount) {
+		this.viewCount = viewCount;
+	}
+
 	public LocalDateTime getCreatedAt() {
 		return createdAt;
 	}
@@ -6,10 +6,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
+@Table(indexes = @Index(name = "idx_contact_message_created_at", columnList = "createdAt"))
 public class ContactMessage {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -6,9 +6,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
+@Table(indexes = { @Index(name = "idx_portfolio_image_url", columnList = "imageUrl"),
+		@Index(name = "idx_portfolio_thumbnail_url", columnList = "thumbnailUrl"),
+		@Index(name = "idx_portfolio_card_url", columnList = "cardUrl"),
+		@Index(name = "idx_portfolio_full_url", columnList = "fullUrl") })
 public class PortfolioItem {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,10 +25,15 @@ public class PortfolioItem {
 	@NotBlank
 	private String description;
 	private String imageUrl;
+	// Resized copies of imageUrl; null until the image pipeline has produced them.
+	private String thumbnailUrl;
+	private String cardUrl;
+	private String fullUrl;
 	private String projectUrl;
 	private String category;
 	private Long authorId;
 	private LocalDateTime createdAt;
+	private LocalDateTime updatedAt;
 
 	// Getters and Setters
 	public Long getId() {
@@ -57,6 +68,30 @@ public class PortfolioItem {
 		this.imageUrl = imageUrl;
 	}
 
+	public String getThumbnailUrl() {
+		return thumbnailUrl;
+	}
+
+	public void setThumbnailUrl(String thumbnailUrl) {
+		this.thumbnailUrl = thumbnailUrl;
+	}
+
+	public String getCardUrl() {
+		return cardUrl;
+	}
+
+	public void setCardUrl(String cardUrl) {
+		this.cardUrl = cardUrl;
+	}
+
+	public String getFullUrl() {
+		return fullUrl;
+	}
+
+	public void setFullUrl(String fullUrl) {
+		this.fullUrl = fullUrl;
+	}
+
 	public String getProjectUrl() {
 		return projectUrl;
 	}
@@ -88,4 +123,12 @@ public class PortfolioItem {
 	public void setCreatedAt(LocalDateTime createdAt) {
 		this.createdAt = createdAt;
 	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
 }
\ No newline at end of file
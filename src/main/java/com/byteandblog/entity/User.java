@@ -3,6 +3,11 @@ package com.byteandblog.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -33,6 +38,12 @@ public class User {
 	@ElementCollection(fetch = FetchType.EAGER)
 	private Set<String> roles = new HashSet<>();
 
+	// Copied into issued tokens as the "ver" claim; bumping it revokes every token issued before.
+	@JsonIgnore
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	private int tokenVersion;
+
 	// Getters and Setters
 	public Long getId() {
 		return id;
@@ -73,4 +84,12 @@ public class User {
 	public void setRoles(Set<String> roles) {
 		this.roles = roles;
 	}
+
+	public int getTokenVersion() {
+		return tokenVersion;
+	}
+
+	public void setTokenVersion(int tokenVersion) {
+		this.tokenVersion = tokenVersion;
+	}
 }
\ No newline at end of file
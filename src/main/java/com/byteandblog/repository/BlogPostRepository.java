@@ -1,13 +1,86 @@
 package com.byteandblog.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.byteandblog.config.CacheConfig;
 import com.byteandblog.entity.BlogPost;
 
 public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
-    @Cacheable("blogPosts")
+    String SUMMARY_SELECT = "select p.id as id, p.title as title, p.excerpt as excerpt, p.createdAt as createdAt, "
+            + "p.updatedAt as updatedAt, p.readingTimeMinutes as readingTimeMinutes, "
+            + "p.commentCount as commentCount from BlogPost p";
+
+    @Cacheable(CacheConfig.BLOG_POSTS)
     Page<BlogPost> findAll(Pageable pageable);
+
+    @Cacheable(value = CacheConfig.BLOG_POST, unless = "#result == null")
+    @Query("select p from BlogPost p where p.id = :id")
+    Optional<BlogPost> findDetailById(@Param("id") Long id);
+
+    @Cacheable(CacheConfig.BLOG_POST_SUMMARIES)
+    @Query(value = SUMMARY_SELECT, countQuery = "select count(p) from BlogPost p")
+    Page<BlogPostSummary> findAllSummaries(Pageable pageable);
+
+    // Keyset pagination: seeks on idx_created_at instead of OFFSET, and never counts.
+    @Cacheable(CacheConfig.BLOG_POST_FEED)
+    @Query(SUMMARY_SELECT + " order by p.createdAt desc, p.id desc")
+    List<BlogPostSummary> findLatestSummaries(Limit limit);
+
+    @Cacheable(CacheConfig.BLOG_POST_FEED)
+    @Query(SUMMARY_SELECT + " where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)"
+            + " order by p.createdAt desc, p.id desc")
+    List<BlogPostSummary> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Limit limit);
+
+    @Query(SUMMARY_SELECT + " where p.id in :ids")
+    List<BlogPostSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.updatedAt as updatedAt, p.commentCount as commentCount from BlogPost p where p.id = :id")
+    Optional<BlogPostVersion> findVersionById(@Param("id") Long id);
+
+    @Query("select max(p.updatedAt) as updatedAt, count(p) as postCount, sum(p.commentCount) as commentCount"
+            + " from BlogPost p")
+    BlogPostVersion findCollectionVersion();
+
+    @Transactional
+    @Modifying
+    @Query("update BlogPost p set p.commentCount = p.commentCount + 1 where p.id = :id")
+    int incrementCommentCount(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update BlogPost p set p.commentCount = case when p.commentCount > 0 then p.commentCount - 1 else 0 end"
+            + " where p.id = :id")
+    int decrementCommentCount(@Param("id") Long id);
+
+    // Repairs counter drift for one id range; only rows that are actually wrong are rewritten.
+    @Transactional
+    @Modifying
+    @Query("update BlogPost p set p.commentCount = (select count(c) from Comment c where c.post = p)"
+            + " where p.id between :fromId and :toId"
+            + " and p.commentCount <> (select count(c) from Comment c where c.post = p)")
+    int reconcileCommentCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("select max(p.id) from BlogPost p")
+    Long findMaxId();
+
+    // Full posts in id order for bulk readers such as the search index rebuild; deliberately not cached.
+    @Query("select p from BlogPost p where p.id > :afterId order by p.id")
+    List<BlogPost> findBatchAfter(@Param("afterId") Long afterId, Limit limit);
+
+    Slice<BlogPost> findByExcerptIsNull(Pageable pageable);
 }
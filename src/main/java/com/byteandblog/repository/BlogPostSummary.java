@@ -0,0 +1,23 @@
+package com.byteandblog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a blog post for list pages. Never carries the post body
+ * or its comments.
+ */
+public interface BlogPostSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getCommentCount();
+
+    Integer getReadingTimeMinutes();
+}
@@ -0,0 +1,15 @@
+package com.byteandblog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The handful of columns that change whenever a post representation changes.
+ * Used to answer conditional GETs without loading the post itself.
+ */
+public interface BlogPostVersion {
+    LocalDateTime getUpdatedAt();
+
+    Long getPostCount();
+
+    Long getCommentCount();
+}
@@ -1,11 +1,30 @@
 package com.byteandblog.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.byteandblog.entity.Comment;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByPostId(Long postId);
+    List<Comment> findByPostIdOrderByCreatedAtAscIdAsc(Long postId, Limit limit);
+
+    List<Comment> findByPostIdOrderByCreatedAtDescIdDesc(Long postId, Limit limit);
+
+    // Keyset pagination over idx_comment_post_created, newest or oldest first.
+    @Query("select c from Comment c where c.post.id = :postId"
+            + " and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id))"
+            + " order by c.createdAt desc, c.id desc")
+    List<Comment> findByPostIdBefore(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Limit limit);
+
+    @Query("select c from Comment c where c.post.id = :postId"
+            + " and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id))"
+            + " order by c.createdAt asc, c.id asc")
+    List<Comment> findByPostIdAfter(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Limit limit);
 }
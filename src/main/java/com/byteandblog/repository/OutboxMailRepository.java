@@ -0,0 +1,27 @@
+package com.byteandblog.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.byteandblog.entity.OutboxMail;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface OutboxMailRepository extends JpaRepository<OutboxMail, Long> {
+
+    // Lock timeout -2 is SKIP LOCKED: concurrent dispatchers claim disjoint rows instead of waiting.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from OutboxMail m where m.status = :status and m.nextAttemptAt <= :now"
+            + " order by m.priority, m.nextAttemptAt, m.id")
+    List<OutboxMail> findDueForUpdate(@Param("status") OutboxMail.Status status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.byteandblog.repository;
+
+/**
+ * A portfolio item's original image, as needed by the image variant pipeline.
+ */
+public interface PortfolioImage {
+    Long getId();
+
+    String getImageUrl();
+}
@@ -1,8 +1,36 @@
 package com.byteandblog.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.byteandblog.entity.PortfolioItem;
 
 public interface PortfolioItemRepository extends JpaRepository<PortfolioItem, Long> {
+    @Query("select coalesce(i.updatedAt, i.createdAt) from PortfolioItem i where i.id = :id")
+    Optional<LocalDateTime> findVersionById(@Param("id") Long id);
+
+    @Query("select i.id as id, i.imageUrl as imageUrl from PortfolioItem i"
+            + " where i.thumbnailUrl is null and i.imageUrl is not null")
+    List<PortfolioImage> findItemsWithoutVariants();
+
+    // One row per item that uses any of the given URLs as its original or as a variant.
+    @Query("select i.imageUrl, i.thumbnailUrl, i.cardUrl, i.fullUrl from PortfolioItem i"
+            + " where i.imageUrl in :urls or i.thumbnailUrl in :urls or i.cardUrl in :urls or i.fullUrl in :urls")
+    List<Object[]> findImageUrlsReferencing(@Param("urls") Collection<String> urls);
+
+    @Transactional
+    @Modifying
+    @Query("update PortfolioItem i set i.thumbnailUrl = :thumbnailUrl, i.cardUrl = :cardUrl,"
+            + " i.fullUrl = :fullUrl, i.updatedAt = :updatedAt where i.id = :id and i.imageUrl = :imageUrl")
+    int updateVariants(@Param("id") Long id, @Param("imageUrl") String imageUrl,
+            @Param("thumbnailUrl") String thumbnailUrl, @Param("cardUrl") String cardUrl,
+            @Param("fullUrl") String fullUrl, @Param("updatedAt") LocalDateTime updatedAt);
 }
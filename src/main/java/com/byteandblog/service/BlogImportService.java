@@ -0,0 +1,428 @@
+package com.byteandblog.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.byteandblog.entity.BlogPost;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Imports posts and their comments from an NDJSON stream, one post per line.
+ * Lines are read and parsed one at a time and written in JDBC batches of
+ * {@code blog.import.batch-size} posts, each batch in its own transaction.
+ * <p>
+ * The entities keep their IDENTITY keys, which Hibernate cannot batch, so the
+ * inserts go through {@link JdbcTemplate} instead: the posts of a batch are
+ * sent as one JDBC batch and their generated keys read back together, then
+ * their comments follow as a second batch. With MySQL's
+ * {@code rewriteBatchedStatements=true} each batch becomes a multi-row insert.
+ */
+@Service
+public class BlogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlogImportService.class);
+
+    // Default VARCHAR lengths of blog_post.title and comment.content.
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_COMMENT_LENGTH = 255;
+    private static final String INSERT_POST = "insert into blog_post (title, content, author_id, excerpt,"
+            + " reading_time_minutes, comment_count, view_count, created_at, updated_at)"
+            + " values (?, ?, ?, ?, ?, ?, 0, ?, ?)";
+    private static final String INSERT_COMMENT = "insert into comment (content, author_id, created_at, post_id)"
+            + " values (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PostContentService postContentService;
+
+    @Autowired
+    private BlogSearchService blogSearchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${blog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${blog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Reads the stream to the end. A line that cannot be parsed or fails
+     * validation is reported and skipped, and so is a line the database
+     * rejects; the rest of its batch is still written.
+     */
+    public ImportResult importPosts(InputStream in) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ImportedPost.class);
+        ImportResult result = new ImportResult();
+        List<PendingPost> batch = new ArrayList<>(batchSize);
+        long started = System.nanoTime();
+
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportedPost record;
+            try {
+                record = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                result.fail(lineNumber, "Malformed JSON: " + e.getOriginalMessage(), maxReportedErrors);
+                continue;
+            }
+            String problem = validate(record);
+            if (problem != null) {
+                result.fail(lineNumber, problem, maxReportedErrors);
+                continue;
+            }
+            batch.add(new PendingPost(lineNumber, toPost(record), record.getComments()));
+            if (batch.size() >= batchSize) {
+                flush(batch, result, started);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, result, started);
+        }
+
+        result.finish(System.nanoTime() - started);
+        logger.info("Blog import finished: {} posts, {} comments, {} failed in {} ms ({} rows/s)",
+                result.getImportedPosts(), result.getImportedComments(), result.getFailed(),
+                result.getElapsedMs(), result.getRowsPerSecond());
+        return result;
+    }
+
+    private static String validate(ImportedPost record) {
+        if (record == null) {
+            return "Expected a JSON object";
+        }
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            return "Title is required";
+        }
+        if (record.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "Title is longer than " + MAX_TITLE_LENGTH + " characters";
+        }
+        if (record.getContent() == null || record.getContent().isBlank()) {
+            return "Content is required";
+        }
+        List<ImportedComment> comments = record.getComments();
+        for (int i = 0; i < comments.size(); i++) {
+            ImportedComment comment = comments.get(i);
+            if (comment == null || comment.getContent() == null || comment.getContent().isBlank()) {
+                return "Comment " + i + " has no content";
+            }
+            if (comment.getContent().length() > MAX_COMMENT_LENGTH) {
+                return "Comment " + i + " is longer than " + MAX_COMMENT_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private BlogPost toPost(ImportedPost record) {
+        LocalDateTime now = LocalDateTime.now();
+        BlogPost post = new BlogPost();
+        post.setTitle(record.getTitle());
+        post.setContent(record.getContent());
+        post.setAuthorId(record.getAuthorId());
+        post.setCreatedAt(record.getCreatedAt() != null ? record.getCreatedAt() : now);
+        post.setUpdatedAt(record.getUpdatedAt() != null ? record.getUpdatedAt() : post.getCreatedAt());
+        post.setCommentCount(record.getComments().size());
+        postContentService.applyDerivedFields(post);
+        return post;
+    }
+
+    private void flush(List<PendingPost> batch, ImportResult result, long started) {
+        write(batch, result);
+        logger.info("Blog import: {} posts and {} comments written so far ({} rows/s)", result.getImportedPosts(),
+                result.getImportedComments(), ImportResult.rate(result.getImportedPosts() + result.getImportedComments(),
+                        System.nanoTime() - started));
+        batch.clear();
+    }
+
+    /*
+     * Writes the posts in one transaction. When the database rejects it, the
+     * halves are retried separately until the offending lines are isolated, so
+     * one bad record costs a few extra round trips instead of failing the
+     * whole batch.
+     */
+    private void write(List<PendingPost> posts, ImportResult result) {
+        int comments;
+        try {
+            comments = new TransactionTemplate(transactionManager).execute(status -> insert(posts));
+        } catch (DataAccessException e) {
+            if (posts.size() == 1) {
+                String cause = e.getMostSpecificCause().getMessage();
+                logger.warn("Blog import line {} rejected by the database: {}", posts.get(0).line, cause);
+                result.fail(posts.get(0).line, "Rejected by the database: " + cause, maxReportedErrors);
+                return;
+            }
+            logger.debug("Blog import batch of {} posts starting at line {} failed, splitting it: {}", posts.size(),
+                    posts.get(0).line, e.getMostSpecificCause().getMessage());
+            int middle = posts.size() / 2;
+            write(posts.subList(0, middle), result);
+            write(posts.subList(middle, posts.size()), result);
+            return;
+        }
+        // Only committed posts become searchable.
+        for (PendingPost pending : posts) {
+            blogSearchService.index(pending.post);
+        }
+        result.imported(posts.size(), comments);
+    }
+
+    // Runs inside the batch transaction; returns the number of comments written.
+    private int insert(List<PendingPost> batch) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_POST, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        BlogPost post = batch.get(i).post;
+                        statement.setString(1, post.getTitle());
+                        statement.setString(2, post.getContent());
+                        statement.setObject(3, post.getAuthorId());
+                        statement.setString(4, post.getExcerpt());
+                        statement.setObject(5, post.getReadingTimeMinutes());
+                        statement.setLong(6, post.getCommentCount());
+                        statement.setTimestamp(7, Timestamp.valueOf(post.getCreatedAt()));
+                        statement.setTimestamp(8, Timestamp.valueOf(post.getUpdatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != batch.size()) {
+            throw new IllegalStateException(
+                    "Expected " + batch.size() + " generated keys but the driver returned " + keyList.size());
+        }
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingPost pending = batch.get(i);
+            // The key column is reported as GENERATED_KEY by MySQL and as id elsewhere; there is only one.
+            pending.post.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+            for (ImportedComment comment : pending.comments) {
+                LocalDateTime createdAt = comment.getCreatedAt() != null ? comment.getCreatedAt()
+                        : pending.post.getCreatedAt();
+                comments.add(new Object[] { comment.getContent(), comment.getAuthorId(), Timestamp.valueOf(createdAt),
+                        pending.post.getId() });
+            }
+        }
+        if (!comments.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_COMMENT, comments, batchSize, (statement, row) -> {
+                for (int column = 0; column < row.length; column++) {
+                    statement.setObject(column + 1, row[column]);
+                }
+            });
+        }
+        return comments.size();
+    }
+
+    private static final class PendingPost {
+        private final long line;
+        private final BlogPost post;
+        private final List<ImportedComment> comments;
+
+        private PendingPost(long line, BlogPost post, List<ImportedComment> comments) {
+            this.line = line;
+            this.post = post;
+            this.comments = comments;
+        }
+    }
+
+    public static class ImportedPost {
+        private String title;
+        private String content;
+        private Long authorId;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private List<ImportedComment> comments = new ArrayList<>();
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public Long getAuthorId() {
+            return authorId;
+        }
+
+        public void setAuthorId(Long authorId) {
+            this.authorId = authorId;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(LocalDateTime updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        public List<ImportedComment> getComments() {
+            return comments;
+        }
+
+        public void setComments(List<ImportedComment> comments) {
+            this.comments = comments != null ? comments : new ArrayList<>();
+        }
+    }
+
+    public static class ImportedComment {
+        private String content;
+        private Long authorId;
+        private LocalDateTime createdAt;
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public Long getAuthorId() {
+            return authorId;
+        }
+
+        public void setAuthorId(Long authorId) {
+            this.authorId = authorId;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    public static final class RecordError {
+        private final long line;
+        private final String message;
+
+        RecordError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static final class ImportResult {
+        private long importedPosts;
+        private long importedComments;
+        private long failed;
+        private final List<RecordError> errors = new ArrayList<>();
+        private long elapsedMs;
+        private long rowsPerSecond;
+
+        void imported(int posts, int comments) {
+            importedPosts += posts;
+            importedComments += comments;
+        }
+
+        // Every failure is counted; only the first few are listed so the response stays small.
+        void fail(long line, String message, int maxReported) {
+            failed++;
+            if (errors.size() < maxReported) {
+                errors.add(new RecordError(line, message));
+            }
+        }
+
+        void finish(long elapsedNanos) {
+            elapsedMs = elapsedNanos / 1_000_000;
+            rowsPerSecond = rate(importedPosts + importedComments, elapsedNanos);
+        }
+
+        static long rate(long rows, long elapsedNanos) {
+            return elapsedNanos > 0 ? rows * 1_000_000_000L / elapsedNanos : 0;
+        }
+
+        public long getImportedPosts() {
+            return importedPosts;
+        }
+
+        public long getImportedComments() {
+            return importedComments;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public List<RecordError> getErrors() {
+            return errors;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        /** Posts and comments written per second over the whole import. */
+        public long getRowsPerSecond() {
+            return rowsPerSecond;
+        }
+    }
+}
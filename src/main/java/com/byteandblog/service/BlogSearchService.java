@@ -0,0 +1,365 @@
+package com.byteandblog.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import com.byteandblog.entity.BlogPost;
+import com.byteandblog.repository.BlogPostRepository;
+
+/**
+ * In-memory inverted index over post titles and bodies, ranked with BM25.
+ * Built once at startup and kept current by the blog write paths, so search
+ * never scans the content column. Each node maintains its own index.
+ */
+@Service
+public class BlogSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlogSearchService.class);
+
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "but", "by",
+            "for", "if", "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their",
+            "then", "there", "these", "they", "this", "to", "was", "will", "with");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 3;
+    private static final int SNIPPET_LEAD = 60;
+    private static final int SNIPPET_LENGTH = 200;
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private PostContentService postContentService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // While a rebuild runs, the latest write per post (null for a removal), replayed onto the new index.
+    private Map<Long, IndexedPost> changedDuringRebuild;
+
+    /**
+     * Builds a fresh index from the database without blocking searches or
+     * writes, then swaps it in. Posts written or removed while the pages were
+     * being read are replayed onto the new index, so a stale page cannot bring
+     * back a deleted post or an older version of an edited one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index fresh = new Index();
+        boolean complete = false;
+        try {
+            // Seeks by id instead of paging through findAll, whose pages would fill the post list cache.
+            long afterId = 0;
+            List<BlogPost> batch;
+            do {
+                batch = blogPostRepository.findBatchAfter(afterId, Limit.of(REBUILD_BATCH_SIZE));
+                for (BlogPost post : batch) {
+                    fresh.put(document(post));
+                    afterId = post.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                // A failed rebuild keeps the current index, which the write paths have kept up to date.
+                if (complete) {
+                    changedDuringRebuild.forEach((postId, document) -> {
+                        fresh.remove(postId);
+                        if (document != null) {
+                            fresh.put(document);
+                        }
+                    });
+                    index = fresh;
+                }
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Indexed {} blog posts for search in {} ms", fresh.documents.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    public void index(BlogPost post) {
+        IndexedPost document = document(post);
+        lock.writeLock().lock();
+        try {
+            index.put(document);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(document.id, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(postId);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(postId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private IndexedPost document(BlogPost post) {
+        String text = postContentService.toPlainText(post.getContent());
+        String title = post.getTitle() == null ? "" : post.getTitle();
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : tokenize(title)) {
+            frequencies.merge(token, TITLE_BOOST, Integer::sum);
+            length += TITLE_BOOST;
+        }
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+        return new IndexedPost(post.getId(), title, text, post.getCreatedAt(), frequencies, length);
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<ScoredPost> top = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, IndexedPost> documents = index.documents;
+            Map<String, Map<Long, Integer>> postings = index.postings;
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) index.totalLength / documentCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                docs.forEach((postId, tf) -> {
+                    int length = documents.get(postId).length;
+                    double norm = tf + K1 * (1 - B + B * length / averageLength);
+                    scores.merge(postId, idf * tf * (K1 + 1) / norm, Double::sum);
+                });
+            }
+            PriorityQueue<ScoredPost> heap = new PriorityQueue<>(Comparator.comparingDouble(s -> s.score));
+            scores.forEach((postId, score) -> {
+                heap.offer(new ScoredPost(documents.get(postId), score));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            });
+            top.addAll(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+        top.sort(Comparator.comparingDouble((ScoredPost s) -> s.score).reversed());
+
+        Pattern highlight = highlightPattern(terms);
+        List<SearchHit> hits = new ArrayList<>(top.size());
+        for (ScoredPost scored : top) {
+            IndexedPost document = scored.post;
+            hits.add(new SearchHit(document.id, document.title, highlight(document.title, highlight),
+                    snippet(document.text, highlight), document.createdAt, scored.score));
+        }
+        return hits;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Pattern highlightPattern(Set<String> terms) {
+        StringBuilder alternation = new StringBuilder();
+        for (String term : terms) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append(Pattern.quote(term));
+        }
+        return Pattern.compile("(?<![\\p{L}\\p{Nd}])(?:" + alternation + ")(?![\\p{L}\\p{Nd}])",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private String snippet(String text, Pattern highlight) {
+        Matcher matcher = highlight.matcher(text);
+        int start = matcher.find() ? Math.max(0, matcher.start() - SNIPPET_LEAD) : 0;
+        if (start > 0) {
+            int space = text.indexOf(' ', start);
+            start = space < 0 || space > start + SNIPPET_LEAD ? start : space + 1;
+        }
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        if (end < text.length()) {
+            int space = text.lastIndexOf(' ', end);
+            end = space > start ? space : end;
+        }
+        String snippet = highlight(text.substring(start, end), highlight);
+        return (start > 0 ? "..." : "") + snippet + (end < text.length() ? "..." : "");
+    }
+
+    // Escapes the plain text so the only markup in the result is our <mark> tags.
+    private String highlight(String text, Pattern highlight) {
+        Matcher matcher = highlight.matcher(text);
+        StringBuilder result = new StringBuilder();
+        int last = 0;
+        while (matcher.find()) {
+            result.append(HtmlUtils.htmlEscape(text.substring(last, matcher.start())))
+                    .append("<mark>")
+                    .append(HtmlUtils.htmlEscape(matcher.group()))
+                    .append("</mark>");
+            last = matcher.end();
+        }
+        return result.append(HtmlUtils.htmlEscape(text.substring(last))).toString();
+    }
+
+    // Postings and documents of one index generation; guarded by the service's lock once published.
+    private static class Index {
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, IndexedPost> documents = new HashMap<>();
+        private long totalLength;
+
+        void put(IndexedPost document) {
+            remove(document.id);
+            document.frequencies.forEach(
+                    (term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id, tf));
+            documents.put(document.id, document);
+            totalLength += document.length;
+        }
+
+        void remove(Long postId) {
+            IndexedPost previous = documents.remove(postId);
+            if (previous == null) {
+                return;
+            }
+            totalLength -= previous.length;
+            for (String term : previous.frequencies.keySet()) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(postId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class IndexedPost {
+        private final Long id;
+        private final String title;
+        private final String text;
+        private final LocalDateTime createdAt;
+        private final Map<String, Integer> frequencies;
+        private final int length;
+
+        IndexedPost(Long id, String title, String text, LocalDateTime createdAt, Map<String, Integer> frequencies,
+                int length) {
+            this.id = id;
+            this.title = title;
+            this.text = text;
+            this.createdAt = createdAt;
+            this.frequencies = frequencies;
+            this.length = length;
+        }
+    }
+
+    private static class ScoredPost {
+        private final IndexedPost post;
+        private final double score;
+
+        ScoredPost(IndexedPost post, double score) {
+            this.post = post;
+            this.score = score;
+        }
+    }
+
+    public static class SearchHit {
+        private final Long id;
+        private final String title;
+        private final String highlightedTitle;
+        private final String snippet;
+        private final LocalDateTime createdAt;
+        private final double score;
+
+        SearchHit(Long id, String title, String highlightedTitle, String snippet, LocalDateTime createdAt,
+                double score) {
+            this.id = id;
+            this.title = title;
+            this.highlightedTitle = highlightedTitle;
+            this.snippet = snippet;
+            this.createdAt = createdAt;
+            this.score = score;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getHighlightedTitle() {
+            return highlightedTitle;
+        }
+
+        public String getSnippet() {
+            return snippet;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
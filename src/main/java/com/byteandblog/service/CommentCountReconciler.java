@@ -0,0 +1,60 @@
+package com.byteandblog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.byteandblog.config.CacheConfig;
+import com.byteandblog.repository.BlogPostRepository;
+
+/**
+ * Repairs drift in the denormalized {@code BlogPost.commentCount} column, e.g.
+ * after comments were removed outside the API. Walks posts in id ranges so no
+ * single statement touches the whole table.
+ */
+@Service
+public class CommentCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${blog.comment-count.reconcile-batch-size:500}")
+    private long batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${blog.comment-count.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        Long maxId = blogPostRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+        int repaired = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            repaired += blogPostRepository.reconcileCommentCounts(fromId, fromId + batchSize - 1);
+        }
+        if (repaired > 0) {
+            logger.warn("Repaired comment count drift on {} blog posts", repaired);
+            for (String name : new String[] { CacheConfig.BLOG_POST, CacheConfig.BLOG_POSTS,
+                    CacheConfig.BLOG_POST_SUMMARIES, CacheConfig.BLOG_POST_FEED }) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        } else {
+            logger.debug("Comment counts are consistent");
+        }
+    }
+}
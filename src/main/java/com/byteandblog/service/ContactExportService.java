@@ -0,0 +1,200 @@
+package com.byteandblog.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes contact messages straight from a forward-only JDBC cursor, one row
+ * at a time, so memory use does not depend on how many messages there are.
+ * The cursor runs in a read-only transaction: PostgreSQL only honours the
+ * fetch size with autocommit off, and MySQL only streams rows when asked for
+ * a fetch size of {@link Integer#MIN_VALUE}.
+ */
+@Service
+public class ContactExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactExportService.class);
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${contact.export.fetch-size:500}")
+    private int fetchSize;
+
+    /** Writes every message created in [from, to), oldest first; either bound may be null. Returns the row count. */
+    public long export(OutputStream out, Format format, LocalDateTime from, LocalDateTime to) throws IOException {
+        StringBuilder sql = new StringBuilder("select id, name, email, message, created_at from contact_message");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(args.isEmpty() ? " where" : " and").append(" created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(args.isEmpty() ? " where" : " and").append(" created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" order by id");
+
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long started = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            writer.begin();
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(streamingFetchSize(connection));
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, (ResultSet row) -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.end();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; stop reading rows.
+            throw e.getCause();
+        }
+        logger.info("Exported {} contact messages as {} in {} ms", writer.rows, format,
+                System.currentTimeMillis() - started);
+        return writer.rows;
+    }
+
+    private int streamingFetchSize(Connection connection) throws SQLException {
+        String database = connection.getMetaData().getDatabaseProductName();
+        return "MySQL".equalsIgnoreCase(database) ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    abstract static class RowWriter {
+        long rows;
+
+        void begin() throws IOException {
+        }
+
+        abstract void write(ResultSet row) throws SQLException, IOException;
+
+        abstract void end() throws IOException;
+    }
+
+    // One JSON object per line.
+    static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.json = JSON.createGenerator(out);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(ResultSet row) throws SQLException, IOException {
+            Timestamp createdAt = row.getTimestamp("created_at");
+            json.writeStartObject();
+            json.writeNumberField("id", row.getLong("id"));
+            json.writeStringField("name", row.getString("name"));
+            json.writeStringField("email", row.getString("email"));
+            json.writeStringField("message", row.getString("message"));
+            json.writeStringField("createdAt", createdAt != null ? createdAt.toLocalDateTime().toString() : null);
+            json.writeEndObject();
+            json.writeRaw('\n');
+            rows++;
+        }
+
+        @Override
+        void end() throws IOException {
+            json.flush();
+        }
+    }
+
+    // RFC 4180 with a header row. Cells that a spreadsheet would run as a formula are prefixed with a quote.
+    static final class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        }
+
+        @Override
+        void begin() throws IOException {
+            writer.write("id,name,email,message,createdAt\r\n");
+        }
+
+        @Override
+        void write(ResultSet row) throws SQLException, IOException {
+            Timestamp createdAt = row.getTimestamp("created_at");
+            writer.write(Long.toString(row.getLong("id")));
+            writer.write(',');
+            writeCell(row.getString("name"));
+            writer.write(',');
+            writeCell(row.getString("email"));
+            writer.write(',');
+            writeCell(row.getString("message"));
+            writer.write(',');
+            writeCell(createdAt != null ? createdAt.toLocalDateTime().toString() : null);
+            writer.write("\r\n");
+            rows++;
+        }
+
+        private void writeCell(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void end() throws IOException {
+            writer.flush();
+        }
+    }
+}
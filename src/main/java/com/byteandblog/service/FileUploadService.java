@@ -1,26 +1,570 @@
 package com.byteandblog.service;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Stores uploads by content: the SHA-256 of the bytes names the file, under
+ * two levels of hash-prefix directories ({@code /uploads/ab/cd/abcd...ef.jpg}).
+ * Identical uploads resolve to the same file and URL, and a URL never changes
+ * content, so it can be cached forever.
+ *
+ * <p>Large files can also be sent as a resumable chunked upload: chunks are
+ * written at their offset into a preallocated file in the staging directory
+ * ({@code file.staging-dir}), the set of received chunks is persisted next to
+ * it, and on completion the file is hashed and moved into content-addressed
+ * storage like any other upload. Nothing is buffered beyond a fixed copy
+ * buffer. The staging directory is kept out of the upload directory because
+ * everything there is served publicly and cached as immutable.
+ */
 @Service
 public class FileUploadService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileUploadService.class);
+
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final String PART_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".json";
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REPORTED_MISSING = 1000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Value("${file.staging-dir:${file.upload-dir}-staging}")
+    private String stagingDir;
+
+    @Value("${file.chunked.chunk-size:5242880}")
+    private int chunkSize;
+
+    @Value("${file.chunked.max-size:2147483648}")
+    private long maxChunkedSize;
+
+    @Value("${file.chunked.expire-after-ms:86400000}")
+    private long chunkedExpireAfterMillis;
+
+    // Serializes bookkeeping per upload; chunk data itself is written without it.
+    private final ConcurrentHashMap<String, UploadLock> uploadLocks = new ConcurrentHashMap<>();
+
     public String uploadFile(MultipartFile file) throws IOException {
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        Path filePath = Paths.get(uploadDir, fileName);
-        Files.createDirectories(filePath.getParent());
-        Files.copy(file.getInputStream(), filePath);
-        return "/uploads/" + fileName;
+        Path incoming = incomingDir();
+        // Created like the final file rather than with createTempFile, which would make it owner-only.
+        Path temp = incoming.resolve("upload-" + UUID.randomUUID() + PART_SUFFIX);
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                    OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW,
+                            StandardOpenOption.WRITE)) {
+                in.transferTo(out);
+            }
+            return store(temp, HexFormat.of().formatHex(digest.digest()), file.getOriginalFilename());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** True if the URL points at a stored upload (not at an in-progress one). */
+    public boolean isStoredUpload(String url) {
+        if (url == null || !url.startsWith(UPLOADS_PREFIX)) {
+            return false;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(url.substring(UPLOADS_PREFIX.length())).normalize();
+        Path staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        return file.startsWith(root) && !file.startsWith(staging) && Files.isRegularFile(file);
+    }
+
+    /**
+     * Starts a chunked upload and preallocates its file. The expected SHA-256 is
+     * optional; when given, completion fails unless the assembled file matches.
+     */
+    public UploadStatus startChunkedUpload(String fileName, long size, String sha256) throws IOException {
+        if (size <= 0 || size > maxChunkedSize) {
+            throw new IllegalArgumentException("Upload size must be between 1 and " + maxChunkedSize + " bytes");
+        }
+        if (sha256 != null && !SHA256_HEX.matcher(sha256.toLowerCase(Locale.ROOT)).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 hex characters");
+        }
+        ChunkedUpload upload = new ChunkedUpload();
+        upload.setUploadId(UUID.randomUUID().toString());
+        upload.setFileName(fileName);
+        upload.setSize(size);
+        upload.setChunkSize(chunkSize);
+        upload.setSha256(sha256 == null ? null : sha256.toLowerCase(Locale.ROOT));
+        upload.setCreatedAtMillis(System.currentTimeMillis());
+        upload.setReceivedChunks(new byte[0]);
+
+        Path incoming = incomingDir();
+        try (RandomAccessFile file = new RandomAccessFile(incoming.resolve(upload.getUploadId() + PART_SUFFIX).toFile(),
+                "rw")) {
+            file.setLength(size);
+        }
+        writeMeta(upload);
+        logger.info("Started chunked upload {} for {} ({} bytes, {} chunks)", upload.getUploadId(), fileName, size,
+                upload.chunkCount());
+        return UploadStatus.of(upload);
+    }
+
+    /**
+     * Writes one chunk at its offset, streaming from the request body. Offsets
+     * must fall on chunk boundaries and every chunk except the last must be
+     * full-sized. Re-sending a chunk simply overwrites it, which is what makes
+     * retries after a dropped connection safe. The chunk counts as missing from
+     * the moment its bytes start changing until they have been verified.
+     */
+    public UploadStatus writeChunk(String uploadId, long offset, InputStream body, String expectedChunkSha256)
+            throws IOException {
+        ChunkedUpload upload = readMeta(uploadId);
+        if (offset < 0 || offset >= upload.getSize() || offset % upload.getChunkSize() != 0) {
+            throw new IllegalArgumentException("Offset must be a chunk boundary within the file");
+        }
+        int index = (int) (offset / upload.getChunkSize());
+        long length = Math.min(upload.getChunkSize(), upload.getSize() - offset);
+
+        UploadLock lock = claimChunk(uploadId, index);
+        try {
+            MessageDigest digest = expectedChunkSha256 != null ? sha256() : null;
+            byte[] buffer = new byte[(int) Math.min(COPY_BUFFER_SIZE, length)];
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE)) {
+                while (written < length) {
+                    int read = body.read(buffer, 0, (int) Math.min(buffer.length, length - written));
+                    if (read < 0) {
+                        throw new IllegalArgumentException("Chunk " + index + " ended after " + written + " of "
+                                + length + " bytes");
+                    }
+                    if (digest != null) {
+                        digest.update(buffer, 0, read);
+                    }
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                    while (data.hasRemaining()) {
+                        channel.write(data, offset + written + data.position());
+                    }
+                    written += read;
+                }
+            }
+            if (body.read() >= 0) {
+                throw new IllegalArgumentException("Chunk " + index + " is longer than " + length + " bytes");
+            }
+            if (digest != null && !HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(expectedChunkSha256)) {
+                throw new IllegalArgumentException("Chunk " + index + " does not match its checksum");
+            }
+
+            synchronized (lock) {
+                ChunkedUpload current = readMeta(uploadId);
+                BitSet received = BitSet.valueOf(current.getReceivedChunks());
+                received.set(index);
+                current.setReceivedChunks(received.toByteArray());
+                writeMeta(current);
+                return UploadStatus.of(current);
+            }
+        } finally {
+            synchronized (lock) {
+                lock.writing.clear(index);
+            }
+        }
+    }
+
+    /*
+     * Marks the chunk as being written and no longer received, so completion
+     * cannot hash the file while these bytes change and a crash mid-write
+     * leaves the chunk to be sent again. Only one request may write a chunk at
+     * a time; otherwise the first to finish would mark it received while the
+     * other is still overwriting it.
+     */
+    private UploadLock claimChunk(String uploadId, int index) throws IOException {
+        UploadLock lock = lockFor(uploadId);
+        synchronized (lock) {
+            if (lock.writing.get(index)) {
+                throw new IllegalStateException("Chunk " + index + " of upload " + uploadId
+                        + " is already being written");
+            }
+            // Re-read under the lock: the upload may have been completed or aborted meanwhile.
+            ChunkedUpload current = readMeta(uploadId);
+            BitSet received = BitSet.valueOf(current.getReceivedChunks());
+            if (received.get(index)) {
+                received.clear(index);
+                current.setReceivedChunks(received.toByteArray());
+                writeMeta(current);
+            }
+            lock.writing.set(index);
+            return lock;
+        }
+    }
+
+    public UploadStatus getChunkedUpload(String uploadId) throws IOException {
+        return UploadStatus.of(readMeta(uploadId));
+    }
+
+    /**
+     * Verifies that every chunk arrived and that the file matches the expected
+     * hash, then moves it into content-addressed storage and returns its URL.
+     */
+    public String completeChunkedUpload(String uploadId) throws IOException {
+        readMeta(uploadId);
+        UploadLock lock = lockFor(uploadId);
+        synchronized (lock) {
+            ChunkedUpload upload = readMeta(uploadId);
+            if (!lock.writing.isEmpty()) {
+                throw new IllegalStateException("Upload " + uploadId + " still has "
+                        + lock.writing.cardinality() + " chunks being written");
+            }
+            BitSet received = BitSet.valueOf(upload.getReceivedChunks());
+            if (received.cardinality() != upload.chunkCount()) {
+                throw new IllegalStateException("Upload " + uploadId + " is missing "
+                        + (upload.chunkCount() - received.cardinality()) + " chunks");
+            }
+            Path part = partFile(uploadId);
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(part), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            if (upload.getSha256() != null && !upload.getSha256().equals(hash)) {
+                throw new IllegalStateException("Upload " + uploadId + " does not match its sha256");
+            }
+            String url = store(part, hash, upload.getFileName());
+            deleteChunkedUpload(uploadId);
+            return url;
+        }
+    }
+
+    public void abortChunkedUpload(String uploadId) throws IOException {
+        readMeta(uploadId);
+        synchronized (lockFor(uploadId)) {
+            deleteChunkedUpload(uploadId);
+        }
+        logger.info("Aborted chunked upload {}", uploadId);
+    }
+
+    /*
+     * Abandoned uploads would otherwise keep their preallocated space forever.
+     * An upload expires when none of its files changed within the expiry
+     * period, and is deleted as a whole under its lock, so a chunk write in
+     * progress is never cut off and a record never outlives its part file.
+     */
+    @Scheduled(fixedDelayString = "${file.chunked.cleanup-interval-ms:3600000}")
+    public void purgeExpiredUploads() throws IOException {
+        Path incoming = incomingDir();
+        long cutoff = System.currentTimeMillis() - chunkedExpireAfterMillis;
+        Map<String, Long> lastModified = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(incoming)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                int dot = name.indexOf('.');
+                String uploadId = dot < 0 ? name : name.substring(0, dot);
+                long modified;
+                try {
+                    modified = Files.getLastModifiedTime(entry).toMillis();
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (UPLOAD_ID.matcher(uploadId).matches()) {
+                    lastModified.merge(uploadId, modified, Math::max);
+                } else if (modified < cutoff && Files.deleteIfExists(entry)) {
+                    // Left behind by a plain upload that died mid-transfer.
+                    logger.info("Removed stale staging file {}", name);
+                }
+            }
+        }
+        lastModified.forEach((uploadId, modified) -> {
+            if (modified >= cutoff) {
+                return;
+            }
+            UploadLock lock = lockFor(uploadId);
+            synchronized (lock) {
+                if (!lock.writing.isEmpty()) {
+                    return;
+                }
+                try {
+                    deleteChunkedUpload(uploadId);
+                    logger.info("Removed expired chunked upload {}", uploadId);
+                } catch (IOException e) {
+                    logger.warn("Could not remove expired chunked upload {}: {}", uploadId, e.toString());
+                }
+            }
+        });
+        // Drops locks left by uploads that are gone, e.g. requests for an upload just completed elsewhere.
+        for (Map.Entry<String, UploadLock> entry : uploadLocks.entrySet()) {
+            synchronized (entry.getValue()) {
+                if (entry.getValue().writing.isEmpty()
+                        && !Files.exists(incoming.resolve(entry.getKey() + META_SUFFIX))) {
+                    uploadLocks.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private String store(Path temp, String hash, String originalFilename) throws IOException {
+        Path root = Paths.get(uploadDir);
+        String relativePath = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash
+                + extensionOf(originalFilename);
+        Path target = root.resolve(relativePath);
+        if (Files.exists(target)) {
+            // Restarts the orphan sweeper's grace period for a file that is about to gain a reference.
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            logger.info("Upload {} already stored as {}", originalFilename, relativePath);
+        } else {
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(temp, target);
+            logger.info("Stored upload {} as {}", originalFilename, relativePath);
+        }
+        return UPLOADS_PREFIX + relativePath;
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException raced) {
+                // Another request stored the same content first.
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Another request stored the same content first.
+        }
+    }
+
+    // Next to the upload directory by default, so the final move is still a rename on the same file system.
+    private Path incomingDir() throws IOException {
+        return Files.createDirectories(Paths.get(stagingDir));
+    }
+
+    private Path partFile(String uploadId) throws IOException {
+        return incomingDir().resolve(uploadId + PART_SUFFIX);
+    }
+
+    private UploadLock lockFor(String uploadId) {
+        return uploadLocks.computeIfAbsent(uploadId, id -> new UploadLock());
+    }
+
+    private ChunkedUpload readMeta(String uploadId) throws IOException {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new NoSuchElementException("Unknown upload " + uploadId);
+        }
+        try {
+            return MAPPER.readValue(incomingDir().resolve(uploadId + META_SUFFIX).toFile(), ChunkedUpload.class);
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            throw new NoSuchElementException("Unknown upload " + uploadId);
+        }
+    }
+
+    // Written to a sibling and renamed, so a crash never leaves a truncated record.
+    private void writeMeta(ChunkedUpload upload) throws IOException {
+        Path meta = incomingDir().resolve(upload.getUploadId() + META_SUFFIX);
+        Path temp = meta.resolveSibling(upload.getUploadId() + META_SUFFIX + ".tmp");
+        MAPPER.writeValue(temp.toFile(), upload);
+        Files.move(temp, meta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteChunkedUpload(String uploadId) throws IOException {
+        Path incoming = incomingDir();
+        Files.deleteIfExists(incoming.resolve(uploadId + PART_SUFFIX));
+        Files.deleteIfExists(incoming.resolve(uploadId + META_SUFFIX));
+        Files.deleteIfExists(incoming.resolve(uploadId + META_SUFFIX + ".tmp"));
+        uploadLocks.remove(uploadId);
+    }
+
+    private static String extensionOf(String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        if (extension == null) {
+            return "";
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        return SAFE_EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** In-memory lock of one upload, also recording which chunks are mid-write; guarded by itself. */
+    private static class UploadLock {
+        private final BitSet writing = new BitSet();
+    }
+
+    /** Persisted state of a chunked upload; receivedChunks is a serialized BitSet. */
+    static class ChunkedUpload {
+        private String uploadId;
+        private String fileName;
+        private long size;
+        private int chunkSize;
+        private String sha256;
+        private long createdAtMillis;
+        private byte[] receivedChunks;
+
+        int chunkCount() {
+            return (int) ((size + chunkSize - 1) / chunkSize);
+        }
+
+        public String getUploadId() {
+            return uploadId;
+        }
+
+        public void setUploadId(String uploadId) {
+            this.uploadId = uploadId;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public void setFileName(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public void setSha256(String sha256) {
+            this.sha256 = sha256;
+        }
+
+        public long getCreatedAtMillis() {
+            return createdAtMillis;
+        }
+
+        public void setCreatedAtMillis(long createdAtMillis) {
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        public byte[] getReceivedChunks() {
+            return receivedChunks;
+        }
+
+        public void setReceivedChunks(byte[] receivedChunks) {
+            this.receivedChunks = receivedChunks;
+        }
+    }
+
+    public static class UploadStatus {
+        private final String uploadId;
+        private final String fileName;
+        private final long size;
+        private final int chunkSize;
+        private final int chunkCount;
+        private final int receivedChunkCount;
+        private final List<Integer> missingChunks;
+
+        private UploadStatus(String uploadId, String fileName, long size, int chunkSize, int chunkCount,
+                int receivedChunkCount, List<Integer> missingChunks) {
+            this.uploadId = uploadId;
+            this.fileName = fileName;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.chunkCount = chunkCount;
+            this.receivedChunkCount = receivedChunkCount;
+            this.missingChunks = missingChunks;
+        }
+
+        static UploadStatus of(ChunkedUpload upload) {
+            BitSet received = BitSet.valueOf(upload.getReceivedChunks());
+            int chunkCount = upload.chunkCount();
+            List<Integer> missing = new ArrayList<>();
+            for (int i = received.nextClearBit(0); i < chunkCount && missing.size() < MAX_REPORTED_MISSING;
+                    i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return new UploadStatus(upload.getUploadId(), upload.getFileName(), upload.getSize(),
+                    upload.getChunkSize(), chunkCount, received.cardinality(), missing);
+        }
+
+        public String getUploadId() {
+            return uploadId;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public int getChunkCount() {
+            return chunkCount;
+        }
+
+        public int getReceivedChunkCount() {
+            return receivedChunkCount;
+        }
+
+        /** Indexes of chunks still to send, at most the first thousand. */
+        public List<Integer> getMissingChunks() {
+            return missingChunks;
+        }
+
+        public boolean isComplete() {
+            return receivedChunkCount == chunkCount;
+        }
     }
 }
@@ -0,0 +1,288 @@
+package com.byteandblog.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.byteandblog.repository.PortfolioImage;
+import com.byteandblog.repository.PortfolioItemRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Produces resized JPEG copies of portfolio images in the background. Work runs
+ * on a small bounded pool so decoding never competes with request threads;
+ * when the queue is full the job is dropped, the item keeps serving its
+ * original image, and a periodic retry queues it again once there is room.
+ *
+ * <p>Variants are written next to the original as {@code <name>-<width>w.jpg}.
+ * Since originals are content addressed, so are their variants, and they are
+ * served from {@code /uploads} with the same immutable caching.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final float JPEG_QUALITY = 0.82f;
+
+    enum Variant {
+        THUMBNAIL(320), CARD(768), FULL(1600);
+
+        private final int width;
+
+        Variant(int width) {
+            this.width = width;
+        }
+    }
+
+    @Autowired
+    private PortfolioItemRepository portfolioItemRepository;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${image.variants.threads:2}")
+    private int threads;
+
+    @Value("${image.variants.queue-capacity:50}")
+    private int queueCapacity;
+
+    // Decoding is refused above this size to bound worker memory.
+    @Value("${image.variants.max-pixels:40000000}")
+    private long maxPixels;
+
+    private ThreadPoolExecutor executor;
+    // Item and image pairs queued or running, so a retry does not queue the same work twice.
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rejectedSinceRetry = new AtomicBoolean();
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Queues variant generation for an item's image and returns immediately. */
+    public void generateVariants(Long itemId, String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(UPLOADS_PREFIX)) {
+            return;
+        }
+        String job = itemId + " " + imageUrl;
+        if (!queued.add(job)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(itemId, imageUrl);
+                } finally {
+                    queued.remove(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(job);
+            rejectedSinceRetry.set(true);
+            logger.warn("Image variant queue is full, portfolio item {} will be retried", itemId);
+        }
+    }
+
+    // Covers items uploaded before the pipeline existed and jobs dropped or lost on shutdown.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        for (PortfolioImage image : portfolioItemRepository.findItemsWithoutVariants()) {
+            generateVariants(image.getId(), image.getImageUrl());
+        }
+    }
+
+    // Only queries when a job was refused since the last run; refusals during the backfill set the flag again.
+    @Scheduled(fixedDelayString = "${image.variants.retry-interval-ms:60000}")
+    public void retryRejected() {
+        if (rejectedSinceRetry.getAndSet(false)) {
+            logger.info("Retrying image variant jobs refused while the queue was full");
+            backfill();
+        }
+    }
+
+    private void process(Long itemId, String imageUrl) {
+        try {
+            long start = System.currentTimeMillis();
+            Map<Variant, String> urls = createVariants(imageUrl);
+            if (urls.isEmpty()) {
+                return;
+            }
+            int updated = portfolioItemRepository.updateVariants(itemId, imageUrl, urls.get(Variant.THUMBNAIL),
+                    urls.get(Variant.CARD), urls.get(Variant.FULL), LocalDateTime.now());
+            logger.info("Generated image variants for portfolio item {} in {} ms{}", itemId,
+                    System.currentTimeMillis() - start, updated == 0 ? " (item gone or image replaced)" : "");
+        } catch (Exception e) {
+            logger.error("Failed to generate image variants for portfolio item {}: {}", itemId, e.getMessage(), e);
+        }
+    }
+
+    /** Writes any missing variants of an uploaded image; empty if it is not a decodable image. */
+    Map<Variant, String> createVariants(String imageUrl) throws IOException {
+        Map<Variant, String> urls = new EnumMap<>(Variant.class);
+        String relative = imageUrl.substring(UPLOADS_PREFIX.length());
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path source = root.resolve(relative).normalize();
+        if (!source.startsWith(root) || !Files.isRegularFile(source)) {
+            logger.warn("Image {} not found in upload directory", imageUrl);
+            return urls;
+        }
+        String baseName = relative.contains(".") ? relative.substring(0, relative.lastIndexOf('.')) : relative;
+
+        BufferedImage original = null;
+        for (Variant variant : Variant.values()) {
+            String variantRelative = baseName + "-" + variant.width + "w.jpg";
+            Path target = root.resolve(variantRelative);
+            if (!touch(target)) {
+                if (original == null) {
+                    original = read(source, Variant.FULL.width);
+                    if (original == null) {
+                        return urls;
+                    }
+                }
+                write(resize(original, variant.width), target);
+            }
+            urls.put(variant, UPLOADS_PREFIX + variantRelative);
+        }
+        return urls;
+    }
+
+    // Restarts the orphan sweeper's grace period for a variant that is about to be referenced again.
+    private static boolean touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // Decodes with subsampling so a large original is never held at full resolution.
+    private BufferedImage read(Path source, int largestWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                logger.warn("No image decoder for {}, keeping the original only", source.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.warn("Image {} is {}x{}, too large to resize", source.getFileName(), width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / (largestWidth * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the final step; a single bilinear pass over a large ratio aliases badly.
+    private BufferedImage resize(BufferedImage image, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, image.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) image.getHeight() * targetWidth / image.getWidth()));
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                // JPEG has no alpha channel; transparent areas become white rather than black.
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling("variant-" + UUID.randomUUID() + ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,164 @@
+package com.byteandblog.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node OTP store. Entries are also filed in a hashed timer wheel by
+ * expiry tick, so each tick only drops what expires in it instead of scanning
+ * the map. Since every entry has the same TTL, one turn of the wheel covers it.
+ * A code that is replaced, used or dropped leaves the wheel at once, so the
+ * wheel never holds more than the map, which {@code otp.memory.max-entries}
+ * caps however often codes are requested.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOtpStore.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry>[] wheel;
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final int maxAttempts;
+    private final int maxEntries;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(@Value("${otp.ttl-ms:300000}") long ttlMillis,
+            @Value("${otp.max-attempts:5}") int maxAttempts,
+            @Value("${otp.memory.max-entries:10000}") int maxEntries,
+            @Value("${otp.memory.tick-ms:1000}") long tickMillis) {
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        this.maxAttempts = maxAttempts;
+        this.maxEntries = maxEntries;
+        // Two spare slots so an entry is never filed in the slot currently being drained.
+        int slots = (int) ((ttlMillis + tickMillis - 1) / tickMillis) + 2;
+        this.wheel = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    @Override
+    public boolean store(String email, String otp) {
+        if (entries.size() >= maxEntries && !entries.containsKey(email)) {
+            logger.warn("OTP store is full ({} pending codes), refusing a new code", entries.size());
+            return false;
+        }
+        Entry entry = new Entry(email, otp, System.currentTimeMillis() + ttlMillis);
+        wheel[slotOf(entry.expiresAt)].add(entry);
+        Entry replaced = entries.put(email, entry);
+        if (replaced != null) {
+            unschedule(replaced);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean validate(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null || otp == null) {
+            return false;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            discard(entry);
+            return false;
+        }
+        if (MessageDigest.isEqual(entry.otp.getBytes(StandardCharsets.UTF_8), otp.getBytes(StandardCharsets.UTF_8))) {
+            // Only one of two concurrent validations can remove the entry.
+            return discard(entry);
+        }
+        if (entry.failedAttempts.incrementAndGet() >= maxAttempts) {
+            discard(entry);
+            logger.warn("OTP for {} dropped after {} failed attempts", email, maxAttempts);
+        }
+        return false;
+    }
+
+    /** Drains the wheel slots for every tick that has passed since the last run. */
+    @Scheduled(fixedRateString = "${otp.memory.tick-ms:1000}")
+    public synchronized void expire() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tickMillis;
+        // After a long pause one full turn is enough to visit every slot.
+        long fromTick = Math.max(lastTick + 1, currentTick - wheel.length + 1);
+        int expired = 0;
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            Queue<Entry> slot = wheel[(int) (tick % wheel.length)];
+            for (int pending = slot.size(); pending > 0; pending--) {
+                Entry entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.expiresAt > now) {
+                    slot.add(entry);
+                } else if (entries.remove(entry.email, entry)) {
+                    expired++;
+                }
+            }
+        }
+        lastTick = currentTick;
+        if (expired > 0) {
+            logger.debug("Expired {} unused OTPs", expired);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int scheduled() {
+        int scheduled = 0;
+        for (Queue<Entry> slot : wheel) {
+            scheduled += slot.size();
+        }
+        return scheduled;
+    }
+
+    private boolean discard(Entry entry) {
+        if (entries.remove(entry.email, entry)) {
+            unschedule(entry);
+            return true;
+        }
+        return false;
+    }
+
+    // Scans one slot, which only holds the live codes expiring in that tick.
+    private void unschedule(Entry entry) {
+        wheel[slotOf(entry.expiresAt)].remove(entry);
+    }
+
+    // The first tick that starts after the entry has expired, so draining it never finds a live entry.
+    private int slotOf(long expiresAt) {
+        return (int) ((expiresAt / tickMillis + 1) % wheel.length);
+    }
+
+    private static final class Entry {
+        private final String email;
+        private final String otp;
+        private final long expiresAt;
+        private final AtomicInteger failedAttempts = new AtomicInteger();
+
+        private Entry(String email, String otp, long expiresAt) {
+            this.email = email;
+            this.otp = otp;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
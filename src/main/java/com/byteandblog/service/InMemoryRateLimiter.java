@@ -0,0 +1,61 @@
+package com.byteandblog.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.byteandblog.config.RateLimitProperties;
+import com.byteandblog.config.RateLimitProperties.Limit;
+import com.byteandblog.config.RateLimitProperties.Rule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per-node buckets, one {@link AtomicLong} per key updated with a CAS loop.
+ * The key map is bounded by {@code rate-limit.max-keys}; an idle key is
+ * dropped once its bucket would have refilled anyway, so eviction never
+ * forgives a client that is still being limited, except under key floods
+ * large enough to hit the size bound.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public InMemoryRateLimiter(RateLimitProperties properties) {
+        long longestPeriodMs = 1000;
+        for (Rule rule : properties.getRules()) {
+            longestPeriodMs = Math.max(longestPeriodMs, periodOf(rule.getPerIp()));
+            longestPeriodMs = Math.max(longestPeriodMs, periodOf(rule.getPerAccount()));
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(Duration.ofMillis(longestPeriodMs))
+                .build();
+    }
+
+    private static long periodOf(Limit limit) {
+        return limit != null ? limit.getPeriodMs() : 0;
+    }
+
+    @Override
+    public long tryAcquire(String key, int capacity, long periodMicros) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long interval = periodMicros / capacity;
+        while (true) {
+            long now = System.nanoTime() / 1000;
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - periodMicros;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
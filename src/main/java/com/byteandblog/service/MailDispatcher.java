@@ -0,0 +1,131 @@
+package com.byteandblog.service;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.byteandblog.entity.OutboxMail;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Drains the mail outbox on a single background thread. Each claimed batch
+ * goes out in one {@link JavaMailSender#send(SimpleMailMessage...)} call, so
+ * it shares one SMTP connection; mails the server refuses are retried later
+ * without holding back the rest of the batch. A commit that queues mail wakes
+ * the dispatcher right away, and the poll picks up retries and anything
+ * queued by other instances.
+ */
+@Service
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+
+    @Autowired
+    private MailOutboxService mailOutboxService;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "mail-dispatcher"));
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:10000}",
+            initialDelayString = "${mail.outbox.poll-interval-ms:10000}")
+    public void poll() {
+        requestDispatch();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMailQueued(MailOutboxService.MailQueued event) {
+        requestDispatch();
+    }
+
+    // Coalesces wake-ups: at most one run is waiting behind the current one.
+    void requestDispatch() {
+        if (dispatchRequested.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                dispatchRequested.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    void dispatch() {
+        try {
+            while (true) {
+                List<OutboxMail> batch = mailOutboxService.claimDue(batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                Map<Long, String> failures = send(batch);
+                mailOutboxService.complete(batch, failures);
+                logger.info("Sent {} of {} queued mails", batch.size() - failures.size(), batch.size());
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Mail dispatch failed, will retry on the next poll: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Sends the batch over one connection and returns the error for each mail that was not accepted. */
+    Map<Long, String> send(List<OutboxMail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        Map<Object, OutboxMail> byMessage = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMail mail = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(mail.getRecipient());
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getBody());
+            messages[i] = message;
+            byMessage.put(message, mail);
+        }
+        Map<Long, String> failures = new HashMap<>();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                batch.forEach(mail -> failures.put(mail.getId(), e.getMessage()));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                OutboxMail mail = byMessage.get(message);
+                if (mail != null) {
+                    failures.put(mail.getId(), cause.getMessage());
+                }
+            });
+        } catch (MailException e) {
+            // Authentication or connection problems affect the whole batch.
+            batch.forEach(mail -> failures.put(mail.getId(), e.getMessage()));
+        }
+        return failures;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package com.byteandblog.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.byteandblog.entity.OutboxMail;
+import com.byteandblog.repository.OutboxMailRepository;
+
+/**
+ * Transactional outbox for outgoing mail. Callers enqueue inside their own
+ * transaction, so a mail exists exactly when the change that caused it was
+ * committed; {@link MailDispatcher} sends it afterwards. Claiming marks rows
+ * with a lease, so a dispatcher that dies mid-send only delays its batch.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailOutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${mail.outbox.lease-ms:120000}")
+    private long leaseMillis;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-ms:30000}")
+    private long backoffMillis;
+
+    @Value("${mail.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMillis;
+
+    /** Published on enqueue; the dispatcher reacts once the transaction commits. */
+    public static final class MailQueued {
+    }
+
+    @Transactional
+    public void enqueue(String recipient, String subject, String body, int priority) {
+        OutboxMail mail = new OutboxMail();
+        mail.setRecipient(recipient);
+        mail.setSubject(subject);
+        mail.setBody(body);
+        mail.setPriority(priority);
+        mail.setStatus(OutboxMail.Status.PENDING);
+        mail.setCreatedAt(LocalDateTime.now());
+        mail.setNextAttemptAt(mail.getCreatedAt());
+        outboxMailRepository.save(mail);
+        eventPublisher.publishEvent(new MailQueued());
+        logger.debug("Queued mail {} to {}", mail.getId(), recipient);
+    }
+
+    /** Takes up to {@code batchSize} due mails, most urgent first, and leases them to the caller. */
+    @Transactional
+    public List<OutboxMail> claimDue(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMail> due = outboxMailRepository.findDueForUpdate(OutboxMail.Status.PENDING, now,
+                PageRequest.of(0, batchSize));
+        for (OutboxMail mail : due) {
+            mail.setAttempts(mail.getAttempts() + 1);
+            mail.setNextAttemptAt(now.plusNanos(leaseMillis * 1_000_000));
+        }
+        return due;
+    }
+
+    /** Deletes the sent mails and reschedules the failed ones with exponential backoff. */
+    @Transactional
+    public void complete(Collection<OutboxMail> claimed, Map<Long, String> failures) {
+        List<Long> sent = claimed.stream().map(OutboxMail::getId).filter(id -> !failures.containsKey(id)).toList();
+        if (!sent.isEmpty()) {
+            outboxMailRepository.deleteAllByIdInBatch(sent);
+        }
+        if (failures.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMail mail : outboxMailRepository.findAllById(failures.keySet())) {
+            String error = failures.get(mail.getId());
+            mail.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+                    ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (mail.getAttempts() >= maxAttempts) {
+                mail.setStatus(OutboxMail.Status.FAILED);
+                logger.error("Giving up on mail {} to {} after {} attempts: {}", mail.getId(), mail.getRecipient(),
+                        mail.getAttempts(), error);
+            } else {
+                mail.setNextAttemptAt(now.plusNanos(backoffAfter(mail.getAttempts()) * 1_000_000));
+                logger.warn("Mail {} to {} failed (attempt {}), retrying later: {}", mail.getId(),
+                        mail.getRecipient(), mail.getAttempts(), error);
+            }
+        }
+    }
+
+    long backoffAfter(int attempts) {
+        long backoff = backoffMillis << Math.min(attempts - 1, 20);
+        return Math.min(backoff, maxBackoffMillis);
+    }
+}
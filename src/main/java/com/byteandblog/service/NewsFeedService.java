@@ -0,0 +1,491 @@
+package com.byteandblog.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.byteandblog.config.NewsProperties;
+import com.byteandblog.config.NewsProperties.Feed;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the merged news feed in memory. All configured feeds are fetched
+ * concurrently on a background schedule with conditional GETs, so an unchanged
+ * feed costs a 304 and a failing or slow feed only contributes its last good
+ * articles. Readers always get the current copy immediately, a stale copy
+ * triggers a background refresh, and a failed refresh keeps the last good copy.
+ * The response body is encoded once per refresh, so requests only copy bytes.
+ */
+@Service
+public class NewsFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NewsFeedService.class);
+
+    // Extracts the image URL from content:encoded
+    private static final Pattern IMAGE_PATTERN = Pattern.compile("<img src='(.*?)'");
+    private static final Pattern TRACKING_PARAM = Pattern.compile("(?i)^(utm_[a-z]+|ft|fbclid|gclid)=.*");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Feed> feeds;
+    private final long staleAfterMillis;
+    private final long retryBackoffMillis;
+    private final long defaultTimeoutMillis;
+    private final int maxArticles;
+    private final HttpClient httpClient;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "news-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<CompletableFuture<NewsSnapshot>> inFlight = new AtomicReference<>();
+    private final Map<String, FeedState> feedStates = new ConcurrentHashMap<>();
+
+    private volatile NewsSnapshot snapshot;
+    private volatile long lastAttemptMillis;
+
+    public NewsFeedService(NewsProperties properties) {
+        this.feeds = List.copyOf(properties.getFeeds());
+        this.staleAfterMillis = properties.getStaleAfterMs();
+        this.retryBackoffMillis = properties.getRetryBackoffMs();
+        this.defaultTimeoutMillis = properties.getFetchTimeoutMs();
+        this.maxArticles = properties.getMaxArticles();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(defaultTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        if (feeds.isEmpty()) {
+            logger.warn("No news feeds configured (news.feeds)");
+        }
+    }
+
+    /**
+     * Returns the current headlines without waiting on the upstream feeds,
+     * except on a cold start where there is nothing to serve yet. Returns null
+     * only if no fetch has ever succeeded.
+     */
+    public NewsSnapshot getHeadlines() {
+        NewsSnapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (current == null) {
+            if (inFlight.get() == null && now - lastAttemptMillis < retryBackoffMillis) {
+                return null;
+            }
+            try {
+                return refreshAsync().get(maxTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                logger.warn("Initial news fetch did not complete: {}", e.toString());
+                return snapshot;
+            }
+        }
+        if (now - current.getFetchedAtMillis() > staleAfterMillis && now - lastAttemptMillis > retryBackoffMillis) {
+            refreshAsync();
+        }
+        return current;
+    }
+
+    // Only starts the refresh: waiting on it would hold a scheduler thread for up to the fetch timeout.
+    @Scheduled(fixedDelayString = "${news.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refreshAsync();
+    }
+
+    /** Starts a refresh unless one is already running; concurrent callers share it. */
+    public CompletableFuture<NewsSnapshot> refreshAsync() {
+        while (true) {
+            CompletableFuture<NewsSnapshot> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<NewsSnapshot> refresh = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, refresh)) {
+                lastAttemptMillis = System.currentTimeMillis();
+                refresher.execute(() -> runRefresh(refresh));
+                return refresh;
+            }
+        }
+    }
+
+    private void runRefresh(CompletableFuture<NewsSnapshot> refresh) {
+        try {
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<FetchOutcome>> fetches = new ArrayList<>(feeds.size());
+            for (Feed feed : feeds) {
+                fetches.add(fetch(feed));
+            }
+            CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0])).join();
+
+            int updated = 0;
+            int notModified = 0;
+            for (CompletableFuture<FetchOutcome> fetch : fetches) {
+                FetchOutcome outcome = fetch.join();
+                if (outcome == FetchOutcome.UPDATED) {
+                    updated++;
+                } else if (outcome == FetchOutcome.NOT_MODIFIED) {
+                    notModified++;
+                }
+            }
+            NewsSnapshot current = snapshot;
+            if (updated > 0 || (current == null && notModified > 0)) {
+                snapshot = NewsSnapshot.encode(merge(), System.currentTimeMillis());
+            } else if (notModified > 0) {
+                // Nothing changed upstream; the existing copy is confirmed fresh.
+                snapshot = current.withFetchedAt(System.currentTimeMillis());
+            }
+            logger.info("Refreshed {} news feeds in {} ms: {} updated, {} unchanged, {} failed",
+                    feeds.size(), System.currentTimeMillis() - start, updated, notModified,
+                    feeds.size() - updated - notModified);
+        } catch (Exception e) {
+            logger.warn("News feed refresh failed, serving last good copy: {}", e.toString());
+        } finally {
+            inFlight.set(null);
+            refresh.complete(snapshot);
+        }
+    }
+
+    // Never completes exceptionally: a failed or timed-out feed keeps its previous articles.
+    private CompletableFuture<FetchOutcome> fetch(Feed feed) {
+        long timeoutMillis = feed.getTimeoutMs() != null ? feed.getTimeoutMs() : defaultTimeoutMillis;
+        FeedState previous = feedStates.get(feed.getUrl());
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(feed.getUrl()))
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .GET();
+        if (previous != null && previous.etag != null) {
+            request.header("If-None-Match", previous.etag);
+        }
+        if (previous != null && previous.lastModified != null) {
+            request.header("If-Modified-Since", previous.lastModified);
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> handleResponse(feed, previous, response))
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    logger.warn("News feed {} failed: {}", feed.getName(), e.toString());
+                    return FetchOutcome.FAILED;
+                });
+    }
+
+    private FetchOutcome handleResponse(Feed feed, FeedState previous, HttpResponse<byte[]> response) {
+        if (response.statusCode() == 304 && previous != null) {
+            return FetchOutcome.NOT_MODIFIED;
+        }
+        if (response.statusCode() != 200) {
+            logger.warn("News feed {} returned status {}", feed.getName(), response.statusCode());
+            return FetchOutcome.FAILED;
+        }
+        List<NewsArticle> articles;
+        try {
+            articles = parse(feed, response.body());
+        } catch (Exception e) {
+            logger.warn("News feed {} could not be parsed: {}", feed.getName(), e.toString());
+            return FetchOutcome.FAILED;
+        }
+        feedStates.put(feed.getUrl(), new FeedState(response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null), articles));
+        return FetchOutcome.UPDATED;
+    }
+
+    private List<NewsArticle> parse(Feed feed, byte[] body) throws Exception {
+        SyndFeed parsed = new SyndFeedInput().build(new XmlReader(new ByteArrayInputStream(body)));
+        List<NewsArticle> articles = new ArrayList<>(parsed.getEntries().size());
+        for (SyndEntry entry : parsed.getEntries()) {
+            articles.add(toArticle(entry, feed.getName()));
+        }
+        return Collections.unmodifiableList(articles);
+    }
+
+    // Newest first; a story carried by several feeds is kept once.
+    private List<NewsArticle> merge() {
+        List<NewsArticle> all = new ArrayList<>();
+        for (Feed feed : feeds) {
+            FeedState state = feedStates.get(feed.getUrl());
+            if (state != null) {
+                all.addAll(state.articles);
+            }
+        }
+        all.sort(Comparator.comparingLong(NewsArticle::publishedAtMillis).reversed());
+
+        Set<String> seenUrls = new HashSet<>();
+        Set<String> seenTitles = new HashSet<>();
+        List<NewsArticle> merged = new ArrayList<>(Math.min(all.size(), maxArticles));
+        for (NewsArticle article : all) {
+            String urlKey = normalizeUrl(article.getUrl());
+            String titleKey = normalizeTitle(article.getTitle());
+            boolean duplicate = (urlKey != null && seenUrls.contains(urlKey))
+                    || (titleKey != null && seenTitles.contains(titleKey));
+            if (urlKey != null) {
+                seenUrls.add(urlKey);
+            }
+            if (titleKey != null) {
+                seenTitles.add(titleKey);
+            }
+            if (!duplicate) {
+                merged.add(article);
+                if (merged.size() == maxArticles) {
+                    break;
+                }
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    // Same story, different links: ignore scheme, case of host, fragments, tracking parameters and trailing slashes.
+    static String normalizeUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (uri.getHost() == null) {
+                return url.trim();
+            }
+            StringBuilder key = new StringBuilder(uri.getHost().toLowerCase(Locale.ROOT));
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            while (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            key.append(path);
+            if (uri.getRawQuery() != null) {
+                List<String> params = new ArrayList<>();
+                for (String param : uri.getRawQuery().split("&")) {
+                    if (!param.isEmpty() && !TRACKING_PARAM.matcher(param).matches()) {
+                        params.add(param);
+                    }
+                }
+                Collections.sort(params);
+                if (!params.isEmpty()) {
+                    key.append('?').append(String.join("&", params));
+                }
+            }
+            return key.toString();
+        } catch (IllegalArgumentException e) {
+            return url.trim();
+        }
+    }
+
+    static String normalizeTitle(String title) {
+        if (title == null) {
+            return null;
+        }
+        String key = NON_ALPHANUMERIC.matcher(title.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return key.isEmpty() ? null : key;
+    }
+
+    private long maxTimeoutMillis() {
+        long max = defaultTimeoutMillis;
+        for (Feed feed : feeds) {
+            if (feed.getTimeoutMs() != null) {
+                max = Math.max(max, feed.getTimeoutMs());
+            }
+        }
+        return max;
+    }
+
+    private NewsArticle toArticle(SyndEntry entry, String sourceName) {
+        String contentEncoded = entry.getContents().isEmpty() ? null : entry.getContents().get(0).getValue();
+        String urlToImage = null;
+        if (contentEncoded != null) {
+            Matcher matcher = IMAGE_PATTERN.matcher(contentEncoded);
+            if (matcher.find()) {
+                urlToImage = matcher.group(1);
+            }
+        }
+        Date published = entry.getPublishedDate() != null ? entry.getPublishedDate() : entry.getUpdatedDate();
+        return new NewsArticle(entry.getTitle(),
+                entry.getDescription() != null ? entry.getDescription().getValue() : "",
+                entry.getLink(),
+                published != null ? published.toString() : "",
+                published != null ? published.getTime() : 0L,
+                sourceName,
+                entry.getAuthor(),
+                urlToImage);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private enum FetchOutcome {
+        UPDATED, NOT_MODIFIED, FAILED
+    }
+
+    private static class FeedState {
+        private final String etag;
+        private final String lastModified;
+        private final List<NewsArticle> articles;
+
+        FeedState(String etag, String lastModified, List<NewsArticle> articles) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.articles = articles;
+        }
+    }
+
+    /**
+     * Merged articles plus the response body pre-encoded as JSON, raw and
+     * gzipped. The byte arrays are shared by every request and must not be
+     * modified.
+     */
+    public static class NewsSnapshot {
+        private final List<NewsArticle> articles;
+        private final long fetchedAtMillis;
+        private final byte[] body;
+        private final byte[] gzippedBody;
+        private final String etag;
+
+        private NewsSnapshot(List<NewsArticle> articles, long fetchedAtMillis, byte[] body, byte[] gzippedBody,
+                String etag) {
+            this.articles = articles;
+            this.fetchedAtMillis = fetchedAtMillis;
+            this.body = body;
+            this.gzippedBody = gzippedBody;
+            this.etag = etag;
+        }
+
+        // Body follows the NewsAPI top-headlines format the frontend already consumes.
+        static NewsSnapshot encode(List<NewsArticle> articles, long fetchedAtMillis) {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("status", "ok");
+            response.put("totalResults", articles.size());
+            response.put("articles", articles);
+            try {
+                byte[] body = MAPPER.writeValueAsBytes(response);
+                ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                    gzip.write(body);
+                }
+                String etag = DigestUtils.md5DigestAsHex(body);
+                return new NewsSnapshot(articles, fetchedAtMillis, body, gzipped.toByteArray(), etag);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not encode news articles", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        NewsSnapshot withFetchedAt(long fetchedAtMillis) {
+            return new NewsSnapshot(articles, fetchedAtMillis, body, gzippedBody, etag);
+        }
+
+        public List<NewsArticle> getArticles() {
+            return articles;
+        }
+
+        public long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getGzippedBody() {
+            return gzippedBody;
+        }
+
+        /** Quoted entity tag of the raw body. */
+        public String getEtag() {
+            return "\"" + etag + "\"";
+        }
+
+        /** Quoted entity tag of the gzipped body; distinct because it is a different representation. */
+        public String getGzippedEtag() {
+            return "\"" + etag + "-gzip\"";
+        }
+    }
+
+    // Field names follow the NewsAPI article format the frontend already consumes.
+    public static class NewsArticle {
+        private final String title;
+        private final String description;
+        private final String url;
+        private final String publishedAt;
+        private final long publishedAtMillis;
+        private final Map<String, String> source;
+        private final String author;
+        private final String urlToImage;
+
+        NewsArticle(String title, String description, String url, String publishedAt, long publishedAtMillis,
+                String sourceName, String author, String urlToImage) {
+            this.title = title;
+            this.description = description;
+            this.url = url;
+            this.publishedAt = publishedAt;
+            this.publishedAtMillis = publishedAtMillis;
+            this.source = Map.of("name", sourceName);
+            this.author = author;
+            this.urlToImage = urlToImage;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getPublishedAt() {
+            return publishedAt;
+        }
+
+        public Map<String, String> getSource() {
+            return source;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public String getUrlToImage() {
+            return urlToImage;
+        }
+
+        long publishedAtMillis() {
+            return publishedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.byteandblog.service;
+
+/**
+ * Holds issued one-time passwords until they are used, expire, or run out of
+ * attempts. Selected with {@code otp.store}: {@code memory} (default, single
+ * node) or {@code redis} (shared between instances).
+ */
+public interface OtpStore {
+
+    /**
+     * Stores the code for the email, replacing any earlier one and resetting
+     * its attempts. Returns false if the store is full and the code was not kept.
+     */
+    boolean store(String email, String otp);
+
+    /**
+     * True if the code matches; the entry is consumed. A wrong code counts as
+     * an attempt, and the entry is dropped once the attempts are used up.
+     */
+    boolean validate(String email, String otp);
+}
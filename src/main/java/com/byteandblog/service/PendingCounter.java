@@ -0,0 +1,71 @@
+package com.byteandblog.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A striped counter that writers add to while a single scheduled task drains
+ * it, and that the task can drop from its map once it has gone idle without
+ * losing a concurrent add.
+ * <p>
+ * Writers announce themselves in {@code inFlight} before checking
+ * {@code retired}, and {@link #tryRetire()} sets {@code retired} before
+ * checking {@code inFlight}, so either the writer sees the counter is retired
+ * and retries on a fresh one, or the retire sees the writer and backs off.
+ */
+final class PendingCounter {
+
+    private final LongAdder value = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private volatile boolean retired;
+
+    /** Adds to the key's counter, creating one if there is none or the current one was retired. */
+    static <K> void add(Map<K, PendingCounter> counters, K key, long amount) {
+        while (true) {
+            PendingCounter counter = counters.get(key);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(key, k -> new PendingCounter());
+            }
+            if (counter.tryAdd(amount)) {
+                return;
+            }
+        }
+    }
+
+    /** Drops the key's counter if nothing was added since the last drain; the map must be concurrent. */
+    static <K> void retireIfIdle(Map<K, PendingCounter> counters, K key) {
+        counters.computeIfPresent(key, (k, counter) -> counter.tryRetire() ? null : counter);
+    }
+
+    private boolean tryAdd(long amount) {
+        inFlight.increment();
+        try {
+            if (retired) {
+                return false;
+            }
+            value.add(amount);
+            return true;
+        } finally {
+            inFlight.decrement();
+        }
+    }
+
+    /** Takes everything added so far. Unlike sumThenReset, adds racing with the drain are kept for the next one. */
+    long drain() {
+        long drained = value.sum();
+        if (drained != 0) {
+            value.add(-drained);
+        }
+        return drained;
+    }
+
+    // Runs with the map entry locked, so no writer can create a replacement meanwhile.
+    private boolean tryRetire() {
+        retired = true;
+        if (inFlight.sum() == 0 && value.sum() == 0) {
+            return true;
+        }
+        retired = false;
+        return false;
+    }
+}
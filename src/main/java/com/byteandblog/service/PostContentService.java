@@ -0,0 +1,89 @@
+package com.byteandblog.service;
+
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import com.byteandblog.entity.BlogPost;
+import com.byteandblog.repository.BlogPostRepository;
+
+/**
+ * Derives the list-page fields of a post (excerpt and reading time) from its
+ * HTML body. Computed once on write so list reads never touch the body.
+ */
+@Service
+public class PostContentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostContentService.class);
+
+    private static final Pattern TAG_PATTERN = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final int EXCERPT_LENGTH = 200;
+    private static final int WORDS_PER_MINUTE = 200;
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    public void applyDerivedFields(BlogPost post) {
+        String text = toPlainText(post.getContent());
+        post.setExcerpt(excerpt(text));
+        post.setReadingTimeMinutes(readingTimeMinutes(text));
+    }
+
+    public String toPlainText(String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = TAG_PATTERN.matcher(html).replaceAll(" ")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&");
+        return WHITESPACE_PATTERN.matcher(text).replaceAll(" ").trim();
+    }
+
+    private String excerpt(String text) {
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', EXCERPT_LENGTH);
+        if (cut <= 0) {
+            cut = EXCERPT_LENGTH;
+        }
+        return text.substring(0, cut) + "...";
+    }
+
+    private int readingTimeMinutes(String text) {
+        if (text.isEmpty()) {
+            return 1;
+        }
+        int words = WHITESPACE_PATTERN.split(text).length;
+        return Math.max(1, (words + WORDS_PER_MINUTE - 1) / WORDS_PER_MINUTE);
+    }
+
+    // Posts written before the summary columns existed have no excerpt yet.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDerivedFields() {
+        int updated = 0;
+        Slice<BlogPost> batch = blogPostRepository.findByExcerptIsNull(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+        while (batch.hasContent()) {
+            batch.getContent().forEach(this::applyDerivedFields);
+            blogPostRepository.saveAll(batch.getContent());
+            updated += batch.getNumberOfElements();
+            batch = blogPostRepository.findByExcerptIsNull(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+        }
+        if (updated > 0) {
+            logger.info("Backfilled excerpt and reading time for {} blog posts", updated);
+        }
+    }
+}
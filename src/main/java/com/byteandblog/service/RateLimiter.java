@@ -0,0 +1,20 @@
+package com.byteandblog.service;
+
+/**
+ * Token buckets for the rate limit filter. Selected with
+ * {@code rate-limit.store}: {@code memory} (default, per node) or
+ * {@code redis} (shared between instances).
+ * <p>
+ * Buckets are kept in GCRA form: instead of a token count and a refill
+ * timestamp, each key stores the time at which its bucket will be full again,
+ * which makes an acquire a single compare-and-set (or a single script call).
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes a token from the key's bucket, which holds {@code capacity} tokens
+     * refilled evenly over {@code periodMicros}. Returns 0 if a token was
+     * taken, otherwise the microseconds until the next one is available.
+     */
+    long tryAcquire(String key, int capacity, long periodMicros);
+}
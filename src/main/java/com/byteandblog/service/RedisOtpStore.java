@@ -0,0 +1,63 @@
+package com.byteandblog.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * OTP store shared by every instance. Each code is a Redis hash with a TTL, so
+ * Redis does the expiry; storing and validating are Lua scripts, so checking
+ * a code and counting the attempt happen atomically.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "redis")
+public class RedisOtpStore implements OtpStore {
+
+    private static final String KEY_PREFIX = "otp:";
+
+    private static final RedisScript<Long> STORE = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+            + "redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+            + "return 1", Long.class);
+
+    // 1 on a match (entry deleted); 0 otherwise, deleting the entry once attempts reach ARGV[2].
+    private static final RedisScript<Long> VALIDATE = new DefaultRedisScript<>(
+            "local code = redis.call('HGET', KEYS[1], 'code') "
+            + "if not code then return 0 end "
+            + "if code == ARGV[1] then redis.call('DEL', KEYS[1]) return 1 end "
+            + "if redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= tonumber(ARGV[2]) then "
+            + "redis.call('DEL', KEYS[1]) end "
+            + "return 0", Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${otp.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    public boolean store(String email, String otp) {
+        redisTemplate.execute(STORE, List.of(KEY_PREFIX + email), otp, String.valueOf(ttlMillis));
+        return true;
+    }
+
+    @Override
+    public boolean validate(String email, String otp) {
+        if (otp == null) {
+            return false;
+        }
+        Long result = redisTemplate.execute(VALIDATE, List.of(KEY_PREFIX + email), otp,
+                String.valueOf(maxAttempts));
+        return result != null && result == 1L;
+    }
+}
@@ -0,0 +1,57 @@
+package com.byteandblog.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buckets shared by every instance. The whole acquire runs as one Lua script
+ * on Redis time, so instances with skewed clocks still agree. Keys expire when
+ * their bucket is full again. If Redis is unreachable requests are let through
+ * rather than failing every limited endpoint.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String KEY_PREFIX = "rate:";
+
+    // ARGV: emission interval and period in microseconds. Returns 0 or the wait in microseconds.
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') "
+            + "local now = tonumber(t[1]) * 1000000 + tonumber(t[2]) "
+            + "local interval = tonumber(ARGV[1]) "
+            + "local period = tonumber(ARGV[2]) "
+            + "local fullAt = tonumber(redis.call('GET', KEYS[1]) or 0) "
+            + "local nextAt = math.max(fullAt, now) + interval "
+            + "local wait = nextAt - now - period "
+            + "if wait > 0 then return wait end "
+            // %d, since the default number format would round a microsecond timestamp.
+            + "redis.call('SET', KEYS[1], string.format('%d', nextAt), 'PX', math.ceil((nextAt - now) / 1000)) "
+            + "return 0", Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Override
+    public long tryAcquire(String key, int capacity, long periodMicros) {
+        try {
+            Long wait = redisTemplate.execute(ACQUIRE, List.of(KEY_PREFIX + key),
+                    String.valueOf(periodMicros / capacity), String.valueOf(periodMicros));
+            return wait != null ? wait : 0;
+        } catch (DataAccessException e) {
+            logger.warn("Rate limit check skipped, Redis is unavailable: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
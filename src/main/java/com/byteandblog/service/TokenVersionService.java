@@ -0,0 +1,57 @@
+package com.byteandblog.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.byteandblog.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Current token version per user, used to reject tokens issued before a
+ * password reset or a revocation. Versions are cached briefly so the JWT
+ * filter hits the database at most once per user per TTL; other nodes see a
+ * bump once their cached entry expires.
+ */
+@Service
+public class TokenVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+    // Cached for unknown users too, so a deleted user's tokens do not cost a query each.
+    private static final int UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+            @Value("${auth.token-version-cache.ttl-ms:30000}") long ttlMillis,
+            @Value("${auth.token-version-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+    }
+
+    /** True if the user still exists and the token carries their current version. */
+    public boolean isCurrent(String username, int tokenVersion) {
+        Integer current = versions.get(username, name -> {
+            Optional<Integer> stored = userRepository.findTokenVersionByUsername(name);
+            return stored.orElse(UNKNOWN_USER);
+        });
+        return current != UNKNOWN_USER && current == tokenVersion;
+    }
+
+    /** Invalidates every token issued to the user so far. */
+    public void revokeTokens(String username) {
+        userRepository.incrementTokenVersion(username);
+        versions.invalidate(username);
+        logger.info("Revoked existing tokens for user {}", username);
+    }
+}
@@ -0,0 +1,154 @@
+package com.byteandblog.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.byteandblog.repository.BlogPostRepository;
+import com.byteandblog.repository.BlogPostSummary;
+
+/**
+ * Ranks posts by exponentially decayed views and comments.
+ * <p>
+ * Request threads only add weight to a lock-free per-post accumulator. A
+ * single scheduled refresher folds those into decayed scores, keeps the
+ * tracked set bounded, selects the top posts with a min-heap and publishes an
+ * immutable snapshot, so reading the ranking costs nothing per request.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    // Whole units so the lock-free accumulator can be a striped long counter.
+    private static final long VIEW_WEIGHT = 1;
+    private static final long COMMENT_WEIGHT = 5;
+    private static final double MIN_SCORE = 0.01;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Value("${blog.trending.half-life-minutes:60}")
+    private double halfLifeMinutes;
+
+    @Value("${blog.trending.max-tracked-posts:10000}")
+    private int maxTrackedPosts;
+
+    @Value("${blog.trending.size:20}")
+    private int trendingSize;
+
+    private final Map<Long, PendingCounter> incoming = new ConcurrentHashMap<>();
+
+    // Only touched by the refresher thread.
+    private final Map<Long, Double> scores = new HashMap<>();
+    private long lastRefreshMillis = System.currentTimeMillis();
+
+    private volatile List<TrendingPost> snapshot = Collections.emptyList();
+
+    public void recordView(Long postId) {
+        record(postId, VIEW_WEIGHT);
+    }
+
+    public void recordComment(Long postId) {
+        record(postId, COMMENT_WEIGHT);
+    }
+
+    private void record(Long postId, long weight) {
+        PendingCounter.add(incoming, postId, weight);
+    }
+
+    public List<TrendingPost> getTrending(int limit) {
+        List<TrendingPost> current = snapshot;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${blog.trending.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        double decay = Math.pow(0.5, (now - lastRefreshMillis) / (halfLifeMinutes * 60_000));
+        lastRefreshMillis = now;
+
+        scores.replaceAll((postId, score) -> score * decay);
+        List<Long> idle = new ArrayList<>();
+        incoming.forEach((postId, counter) -> {
+            long added = counter.drain();
+            if (added > 0) {
+                scores.merge(postId, (double) added, Double::sum);
+            } else {
+                idle.add(postId);
+            }
+        });
+        idle.forEach(postId -> PendingCounter.retireIfIdle(incoming, postId));
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        if (scores.size() > maxTrackedPosts) {
+            List<Long> coldest = topIds(scores.size() - maxTrackedPosts, Comparator.reverseOrder());
+            coldest.forEach(scores::remove);
+        }
+
+        List<Long> hottest = topIds(trendingSize, Comparator.naturalOrder());
+        if (hottest.isEmpty()) {
+            snapshot = Collections.emptyList();
+            return;
+        }
+        Map<Long, BlogPostSummary> summaries = blogPostRepository.findSummariesByIdIn(hottest).stream()
+                .collect(Collectors.toMap(BlogPostSummary::getId, Function.identity()));
+        List<TrendingPost> ranked = new ArrayList<>(hottest.size());
+        for (Long postId : hottest) {
+            BlogPostSummary summary = summaries.get(postId);
+            if (summary == null) {
+                scores.remove(postId);
+            } else {
+                ranked.add(new TrendingPost(summary, scores.get(postId)));
+            }
+        }
+        snapshot = Collections.unmodifiableList(ranked);
+        logger.debug("Trending refreshed: tracking {} posts, top {}", scores.size(), ranked.size());
+    }
+
+    // Bounded heap selection: keeps the k best entries under the given score ordering, best first.
+    private List<Long> topIds(int k, Comparator<Double> order) {
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.comparingByValue(order);
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> top = new ArrayList<>(heap);
+        top.sort(byScore.reversed());
+        return top.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    public static class TrendingPost {
+        private final BlogPostSummary post;
+        private final double score;
+
+        TrendingPost(BlogPostSummary post, double score) {
+            this.post = post;
+            this.score = score;
+        }
+
+        public BlogPostSummary getPost() {
+            return post;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.byteandblog.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.byteandblog.repository.PortfolioItemRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reclaims uploads that no portfolio item references, e.g. after an item was
+ * deleted or its save failed after the upload. Each run walks a bounded number
+ * of files, resuming where the previous run stopped, looks the batch up against
+ * the item image columns in one query and deletes unreferenced files older
+ * than the grace period. The directory is never listed in one go and the
+ * table is never scanned as a whole.
+ */
+@Service
+public class UploadSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSweeper.class);
+
+    private static final String UPLOADS_PREFIX = "/uploads/";
+
+    @Autowired
+    private PortfolioItemRepository portfolioItemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${file.staging-dir:${file.upload-dir}-staging}")
+    private String stagingDir;
+
+    @Value("${uploads.sweep.batch-size:200}")
+    private int batchSize;
+
+    // Covers uploads whose item has not been saved yet, including chunked uploads awaiting their item.
+    @Value("${uploads.sweep.grace-period-ms:86400000}")
+    private long gracePeriodMillis;
+
+    @Value("${uploads.sweep.pass-interval-ms:21600000}")
+    private long passIntervalMillis;
+
+    private Counter reclaimedBytes;
+    private Counter reclaimedFiles;
+    private Counter scannedFiles;
+
+    // Walk position, kept between runs.
+    private final Deque<Path> pendingDirectories = new ArrayDeque<>();
+    private DirectoryStream<Path> currentDirectory;
+    private Iterator<Path> currentEntries;
+    private long nextPassAtMillis;
+    private long passFiles;
+    private long passBytes;
+
+    @PostConstruct
+    void registerMetrics() {
+        reclaimedBytes = Counter.builder("uploads.sweeper.reclaimed.bytes")
+                .description("Bytes freed by deleting unreferenced uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        reclaimedFiles = Counter.builder("uploads.sweeper.reclaimed.files")
+                .description("Unreferenced uploads deleted")
+                .register(meterRegistry);
+        scannedFiles = Counter.builder("uploads.sweeper.scanned.files")
+                .description("Upload files checked for references")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.sweep.interval-ms:60000}",
+            initialDelayString = "${uploads.sweep.initial-delay-ms:300000}")
+    public synchronized void sweepBatch() {
+        try {
+            Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            if (currentEntries == null && pendingDirectories.isEmpty()) {
+                if (System.currentTimeMillis() < nextPassAtMillis || !Files.isDirectory(root)) {
+                    return;
+                }
+                pendingDirectories.add(root);
+                passFiles = 0;
+                passBytes = 0;
+            }
+            List<Path> batch = nextBatch(root);
+            if (!batch.isEmpty()) {
+                sweep(root, batch);
+            }
+            if (currentEntries == null && pendingDirectories.isEmpty()) {
+                nextPassAtMillis = System.currentTimeMillis() + passIntervalMillis;
+                logger.info("Upload sweep pass finished, reclaimed {} files ({} bytes)", passFiles, passBytes);
+            }
+        } catch (IOException e) {
+            logger.error("Upload sweep failed, restarting the walk next pass: {}", e.getMessage(), e);
+            resetWalk();
+            nextPassAtMillis = System.currentTimeMillis() + passIntervalMillis;
+        }
+    }
+
+    private List<Path> nextBatch(Path root) throws IOException {
+        List<Path> batch = new ArrayList<>(batchSize);
+        Path incoming = Paths.get(stagingDir).toAbsolutePath().normalize();
+        while (batch.size() < batchSize) {
+            if (currentEntries == null) {
+                Path directory = pendingDirectories.poll();
+                if (directory == null) {
+                    break;
+                }
+                try {
+                    currentDirectory = Files.newDirectoryStream(directory);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                currentEntries = currentDirectory.iterator();
+            }
+            if (!currentEntries.hasNext()) {
+                closeCurrentDirectory();
+                continue;
+            }
+            Path entry = currentEntries.next();
+            if (Files.isDirectory(entry)) {
+                // Only reached when the staging directory is configured inside the upload directory;
+                // in-progress uploads are expired by FileUploadService itself.
+                if (!entry.equals(incoming)) {
+                    pendingDirectories.add(entry);
+                }
+            } else if (isSweepable(entry)) {
+                batch.add(entry);
+            }
+        }
+        return batch;
+    }
+
+    // Staging files of in-flight writes are named *.part / *.tmp.
+    private boolean isSweepable(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && !name.endsWith(".part") && !name.endsWith(".tmp");
+    }
+
+    private void sweep(Path root, List<Path> batch) throws IOException {
+        scannedFiles.increment(batch.size());
+        long cutoff = System.currentTimeMillis() - gracePeriodMillis;
+        List<String> candidates = new ArrayList<>(batch.size());
+        List<Path> candidateFiles = new ArrayList<>(batch.size());
+        for (Path file : batch) {
+            if (lastModified(file) < cutoff) {
+                candidates.add(UPLOADS_PREFIX + root.relativize(file).toString().replace('\\', '/'));
+                candidateFiles.add(file);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (Object[] row : portfolioItemRepository.findImageUrlsReferencing(candidates)) {
+            for (Object url : row) {
+                if (url != null) {
+                    referenced.add((String) url);
+                }
+            }
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            Path file = candidateFiles.get(i);
+            // Re-checked because a duplicate upload refreshes the timestamp of the file it reuses.
+            if (referenced.contains(candidates.get(i)) || lastModified(file) >= cutoff) {
+                continue;
+            }
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                reclaimedBytes.increment(size);
+                reclaimedFiles.increment();
+                passFiles++;
+                passBytes += size;
+                logger.info("Deleted unreferenced upload {} ({} bytes)", candidates.get(i), size);
+            }
+        }
+    }
+
+    private long lastModified(Path file) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void closeCurrentDirectory() throws IOException {
+        if (currentDirectory != null) {
+            currentDirectory.close();
+        }
+        currentDirectory = null;
+        currentEntries = null;
+    }
+
+    private void resetWalk() {
+        try {
+            closeCurrentDirectory();
+        } catch (IOException e) {
+            logger.debug("Could not close upload directory stream: {}", e.getMessage());
+        }
+        currentDirectory = null;
+        currentEntries = null;
+        pendingDirectories.clear();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        resetWalk();
+    }
+}
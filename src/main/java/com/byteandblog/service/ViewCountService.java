@@ -0,0 +1,75 @@
+package com.byteandblog.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts post views in memory and writes them to {@code blog_post.view_count}
+ * in one JDBC batch per interval, so the read path never issues an UPDATE.
+ * Each post gets a {@link PendingCounter}, which stripes concurrent
+ * increments across cells instead of contending on a single counter.
+ * <p>
+ * The flush does not evict the cached post: view counts are not part of the
+ * post's ETag, and a popular post would otherwise lose its cache entry and
+ * its 304s on every interval. The count in a post body may therefore lag by
+ * up to the cache TTL.
+ */
+@Service
+public class ViewCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCountService.class);
+
+    private static final String FLUSH_SQL = "update blog_post set view_count = view_count + ? where id = ?";
+
+    private final Map<Long, PendingCounter> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void recordView(Long postId) {
+        PendingCounter.add(pending, postId, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${blog.views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<Long> idle = new ArrayList<>();
+        pending.forEach((postId, counter) -> {
+            long views = counter.drain();
+            if (views > 0) {
+                batch.add(new Object[] { views, postId });
+            } else {
+                idle.add(postId);
+            }
+        });
+        // Counters with no views for a whole interval are dropped to keep the map small.
+        idle.forEach(postId -> PendingCounter.retireIfIdle(pending, postId));
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush view counts for {} blog posts, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach(row -> PendingCounter.add(pending, (Long) row[1], (Long) row[0]));
+            return;
+        }
+        logger.debug("Flushed view counts for {} blog posts", batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,96 @@
+package com.byteandblog.config;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.repository.UserRepository;
+import com.byteandblog.service.TokenVersionService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Filter throughput for a client that repeats the same token, with the
+ * verified-token cache on and off. Not part of the test run; start it with
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath com.byteandblog.config.JwtRequestFilterBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+	private static final String SECRET = "benchmarksecretbenchmarksecretbenchmarksecretbenchmarksecret1234";
+
+	@Param({ "true", "false" })
+	public boolean cached;
+
+	private JwtRequestFilter filter;
+	private MockHttpServletRequest request;
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+	private final FilterChain chain = (req, res) -> {
+	};
+
+	@Setup
+	public void setUp() {
+		// Real version service over a stub repository, so its own cache answers after the first call.
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findTokenVersionByUsername("admin")).thenReturn(Optional.of(0));
+		TokenVersionService tokenVersionService = new TokenVersionService(userRepository, 30_000, 10_000);
+
+		filter = new JwtRequestFilter(tokenVersionService, cached ? 10_000 : 0, 3_600_000);
+		ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+
+		String token = Jwts.builder().setSubject("admin").claim("roles", List.of("ROLE_ADMIN", "ROLE_USER"))
+				.claim("ver", 0).setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+				.signWith(SignatureAlgorithm.HS512, SECRET).compact();
+		request = new MockHttpServletRequest("GET", "/api/portfolio/1");
+		request.addHeader("Authorization", "Bearer " + token);
+	}
+
+	@Benchmark
+	public Authentication authenticate() throws Exception {
+		// doFilterInternal skips the once-per-request marker, so the same request can be replayed.
+		filter.doFilterInternal(request, response, chain);
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtRequestFilterBenchmark.class.getSimpleName()).build()).run();
+	}
+}
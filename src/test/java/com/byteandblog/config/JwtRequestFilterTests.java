@@ -0,0 +1,132 @@
+package com.byteandblog.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.service.TokenVersionService;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+class JwtRequestFilterTests {
+
+	private static final String SECRET = "testsecrettestsecrettestsecrettestsecrettestsecrettestsecret1234";
+
+	private final TokenVersionService tokenVersionService = mock(TokenVersionService.class);
+	private JwtRequestFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = newFilter(10_000);
+	}
+
+	private JwtRequestFilter newFilter(long cacheSize) {
+		JwtRequestFilter filter = new JwtRequestFilter(tokenVersionService, cacheSize, 3_600_000);
+		ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+		return filter;
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private JwtBuilder token(String username) {
+		return Jwts.builder().setSubject(username).claim("roles", List.of("ROLE_ADMIN", "ROLE_USER"))
+				.setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000));
+	}
+
+	private Authentication authenticate(String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/portfolio/1");
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+
+	@Test
+	void principalIsBuiltFromClaims() throws Exception {
+		when(tokenVersionService.isCurrent("admin", 3)).thenReturn(true);
+
+		Authentication authentication = authenticate(
+				token("admin").claim("ver", 3).signWith(SignatureAlgorithm.HS512, SECRET).compact());
+
+		assertNotNull(authentication);
+		assertEquals("admin", authentication.getName());
+		assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), authentication.getAuthorities().stream()
+				.map(GrantedAuthority::getAuthority).sorted().collect(Collectors.toList()));
+	}
+
+	@Test
+	void outdatedTokenVersionIsRejected() throws Exception {
+		when(tokenVersionService.isCurrent("admin", 0)).thenReturn(false);
+
+		assertNull(authenticate(token("admin").signWith(SignatureAlgorithm.HS512, SECRET).compact()));
+	}
+
+	@Test
+	void verifiedTokenIsServedFromCache() throws Exception {
+		when(tokenVersionService.isCurrent("admin", 0)).thenReturn(true);
+		String token = token("admin").claim("ver", 0).signWith(SignatureAlgorithm.HS512, SECRET).compact();
+		assertNotNull(authenticate(token));
+
+		// Rotating the key only fails tokens that get re-verified.
+		ReflectionTestUtils.setField(filter, "jwtSecret", "rotated" + SECRET);
+
+		assertNotNull(authenticate(token));
+	}
+
+	@Test
+	void cacheCanBeDisabled() throws Exception {
+		filter = newFilter(0);
+		when(tokenVersionService.isCurrent("admin", 0)).thenReturn(true);
+		String token = token("admin").claim("ver", 0).signWith(SignatureAlgorithm.HS512, SECRET).compact();
+		assertNotNull(authenticate(token));
+
+		ReflectionTestUtils.setField(filter, "jwtSecret", "rotated" + SECRET);
+
+		assertNull(authenticate(token));
+	}
+
+	@Test
+	void cachedTokenIsStillCheckedForRevocation() throws Exception {
+		when(tokenVersionService.isCurrent("admin", 0)).thenReturn(true, false);
+		String token = token("admin").signWith(SignatureAlgorithm.HS512, SECRET).compact();
+
+		assertNotNull(authenticate(token));
+		assertNull(authenticate(token));
+	}
+
+	@Test
+	void tamperedTokenIsRejectedWithoutLookup() throws Exception {
+		String token = token("admin").claim("ver", 0).signWith(SignatureAlgorithm.HS512, "another" + SECRET)
+				.compact();
+
+		assertNull(authenticate(token));
+		verify(tokenVersionService, never()).isCurrent(anyString(), anyInt());
+	}
+}
@@ -0,0 +1,138 @@
+package com.byteandblog.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.byteandblog.config.RateLimitProperties.Limit;
+import com.byteandblog.config.RateLimitProperties.Rule;
+import com.byteandblog.service.InMemoryRateLimiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+class RateLimitFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		Rule login = new Rule();
+		login.setName("login");
+		login.setMethod("POST");
+		login.setPath("/api/auth/login");
+		login.setPerIp(new Limit(3, 60_000));
+		login.setPerAccount(new Limit(2, 60_000));
+		login.setAccountField("username");
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setRules(List.of(login));
+		filter = new RateLimitFilter(properties, new InMemoryRateLimiter(properties), meterRegistry);
+	}
+
+	private MockHttpServletRequest login(String ip, String username) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+		request.setServletPath("/api/auth/login");
+		request.setRemoteAddr(ip);
+		request.setContentType("application/json");
+		request.setContent(("{\"username\":\"" + username + "\",\"password\":\"pw\"}").getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+
+	private MockHttpServletResponse send(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	@Test
+	void clientOverItsIpLimitGets429WithRetryAfter() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			assertEquals(200, send(login("10.0.0.1", "user" + i), new MockFilterChain()).getStatus());
+		}
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = send(login("10.0.0.1", "other"), chain);
+
+		assertEquals(429, response.getStatus());
+		assertEquals("20", response.getHeader("Retry-After"));
+		assertNull(chain.getRequest());
+		assertEquals(1.0, meterRegistry.get("rate-limit.rejected").tag("key", "ip").counter().count());
+	}
+
+	@Test
+	void accountIsLimitedAcrossIps() throws Exception {
+		assertEquals(200, send(login("10.0.0.1", "admin"), new MockFilterChain()).getStatus());
+		assertEquals(200, send(login("10.0.0.2", "Admin"), new MockFilterChain()).getStatus());
+
+		assertEquals(429, send(login("10.0.0.3", "admin"), new MockFilterChain()).getStatus());
+		assertEquals(200, send(login("10.0.0.3", "someone"), new MockFilterChain()).getStatus());
+	}
+
+	@Test
+	void bodyIsReplayedToTheController() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+
+		send(login("10.0.0.1", "admin"), chain);
+
+		assertNotNull(chain.getRequest());
+		assertEquals("{\"username\":\"admin\",\"password\":\"pw\"}",
+				new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void bodyCanBeReadWithAReadListener() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		send(login("10.0.0.1", "admin"), chain);
+		ServletInputStream in = chain.getRequest().getInputStream();
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		AtomicBoolean allRead = new AtomicBoolean();
+
+		in.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				byte[] buffer = new byte[8];
+				while (in.isReady() && !in.isFinished()) {
+					int count = in.read(buffer);
+					read.write(buffer, 0, count);
+				}
+			}
+
+			@Override
+			public void onAllDataRead() {
+				allRead.set(true);
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				throw new AssertionError(t);
+			}
+		});
+
+		assertTrue(allRead.get());
+		assertEquals("{\"username\":\"admin\",\"password\":\"pw\"}", read.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void otherRoutesAreNotLimited() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/blog");
+			request.setServletPath("/api/blog");
+			assertEquals(200, send(request, new MockFilterChain()).getStatus());
+		}
+	}
+}
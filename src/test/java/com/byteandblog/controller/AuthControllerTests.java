@@ -0,0 +1,97 @@
+package com.byteandblog.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.controller.AuthController.ResetPasswordRequest;
+import com.byteandblog.entity.User;
+import com.byteandblog.repository.UserRepository;
+import com.byteandblog.service.PasswordHashingService;
+import com.byteandblog.service.TokenVersionService;
+
+class AuthControllerTests {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+	private final TokenVersionService tokenVersionService = mock(TokenVersionService.class);
+	private final ExecutorService hashing = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "hashing"));
+	private final ExecutorService tasks = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "task"));
+	private final AtomicReference<String> savedOn = new AtomicReference<>();
+	private AuthController controller;
+
+	@BeforeEach
+	void setUp() {
+		controller = new AuthController();
+		ReflectionTestUtils.setField(controller, "userRepository", userRepository);
+		ReflectionTestUtils.setField(controller, "passwordHashingService", passwordHashingService);
+		ReflectionTestUtils.setField(controller, "tokenVersionService", tokenVersionService);
+		ReflectionTestUtils.setField(controller, "taskExecutor", tasks);
+		when(passwordHashingService.encode(any()))
+				.thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> "hash", hashing));
+		when(userRepository.save(any())).thenAnswer(invocation -> {
+			savedOn.set(Thread.currentThread().getName());
+			return invocation.getArgument(0);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		hashing.shutdownNow();
+		tasks.shutdownNow();
+	}
+
+	@Test
+	void registrationIsSavedOffTheHashingWorkers() throws Exception {
+		User user = new User();
+		user.setUsername("alice");
+		user.setPassword("secret");
+		when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
+
+		ResponseEntity<?> response = controller.register(user).get(10, TimeUnit.SECONDS);
+
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals("task", savedOn.get());
+		assertEquals("hash", user.getPassword());
+	}
+
+	@Test
+	void passwordResetUpdatesOnlyThePasswordOffTheHashingWorkers() throws Exception {
+		User user = new User();
+		user.setUsername("alice");
+		when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user));
+		when(userRepository.updatePassword(eq("alice"), any())).thenAnswer(invocation -> {
+			savedOn.set(Thread.currentThread().getName());
+			return 1;
+		});
+		ResetPasswordRequest request = new ResetPasswordRequest();
+		request.setEmail("alice@example.com");
+		request.setPassword("new-secret");
+		request.setConfirmPassword("new-secret");
+
+		ResponseEntity<?> response = controller.resetPassword(request).get(10, TimeUnit.SECONDS);
+
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals("task", savedOn.get());
+		verify(userRepository).updatePassword("alice", "hash");
+		verify(tokenVersionService).revokeTokens("alice");
+		verify(userRepository, never()).save(any());
+	}
+}
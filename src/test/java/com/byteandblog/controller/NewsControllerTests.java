@@ -0,0 +1,68 @@
+package com.byteandblog.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.byteandblog.service.NewsFeedService;
+import com.byteandblog.service.NewsFeedService.NewsSnapshot;
+
+class NewsControllerTests {
+
+	private static final byte[] BODY = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] GZIPPED = { 31, -117, 8, 0 };
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		NewsSnapshot snapshot = mock(NewsSnapshot.class);
+		when(snapshot.getBody()).thenReturn(BODY);
+		when(snapshot.getGzippedBody()).thenReturn(GZIPPED);
+		when(snapshot.getEtag()).thenReturn("\"plain\"");
+		when(snapshot.getGzippedEtag()).thenReturn("\"plain-gzip\"");
+		NewsFeedService newsFeedService = mock(NewsFeedService.class);
+		when(newsFeedService.getHeadlines()).thenReturn(snapshot);
+
+		NewsController controller = new NewsController();
+		ReflectionTestUtils.setField(controller, "newsFeedService", newsFeedService);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void servesGzipWhenAccepted() throws Exception {
+		mockMvc.perform(get("/api/news/top-headlines").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(content().bytes(GZIPPED));
+	}
+
+	@Test
+	void gzipWithZeroQualityIsRefused() throws Exception {
+		mockMvc.perform(get("/api/news/top-headlines").header(HttpHeaders.ACCEPT_ENCODING, "gzip; q=0.0"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(content().bytes(BODY));
+	}
+
+	@Test
+	void malformedQualityIsTreatedAsNotAccepted() throws Exception {
+		mockMvc.perform(get("/api/news/top-headlines").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=abc"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"plain\""))
+				.andExpect(content().bytes(BODY));
+	}
+}
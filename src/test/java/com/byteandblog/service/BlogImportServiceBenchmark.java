@@ -0,0 +1,118 @@
+package com.byteandblog.service;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.qos.logback.classic.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Rows (posts plus comments) imported per second into an in-memory H2
+ * database, with one post per batch and with the default batch size. H2 runs
+ * in-process, so there are no round trips for batching to save and the gap is
+ * far smaller than against MySQL over a network. Not part of the test run;
+ * start it with
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath com.byteandblog.service.BlogImportServiceBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class BlogImportServiceBenchmark {
+
+	private static final int POSTS = 200;
+	private static final int COMMENTS_PER_POST = 3;
+	private static final int ROWS = POSTS * (1 + COMMENTS_PER_POST);
+
+	@Param({ "1", "500" })
+	public int batchSize;
+
+	private EmbeddedDatabase database;
+	private BlogImportService service;
+	private byte[] body;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// The per-batch progress line would otherwise dominate the one-post batches.
+		((Logger) LoggerFactory.getLogger(BlogImportService.class)).setLevel(ch.qos.logback.classic.Level.WARN);
+		database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+				.addScript("import-schema.sql").build();
+		service = new BlogImportService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", new JdbcTemplate(database));
+		ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(database));
+		ReflectionTestUtils.setField(service, "postContentService", new PostContentService());
+		ReflectionTestUtils.setField(service, "blogSearchService", mock(BlogSearchService.class));
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(service, "batchSize", batchSize);
+		ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+
+		StringBuilder lines = new StringBuilder();
+		String comment = "{\"content\":\"Thanks, this helped.\",\"authorId\":1}";
+		String comments = String.join(",", Collections.nCopies(COMMENTS_PER_POST, comment));
+		for (int i = 0; i < POSTS; i++) {
+			lines.append("{\"title\":\"Post ").append(i).append("\",\"content\":\"<p>")
+					.append("Some paragraph text for the body. ".repeat(20)).append("</p>\",\"comments\":[")
+					.append(comments).append("]}\n");
+		}
+		body = lines.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@TearDown(Level.Iteration)
+	public void truncate() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("delete from comment");
+		jdbcTemplate.execute("delete from blog_post");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		database.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public BlogImportService.ImportResult importPosts() throws IOException {
+		return service.importPosts(new ByteArrayInputStream(body));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BlogImportServiceBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,180 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.byteandblog.entity.BlogPost;
+import com.byteandblog.service.BlogImportService.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BlogImportServiceTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final BlogSearchService blogSearchService = mock(BlogSearchService.class);
+	private final List<Object[]> comments = new ArrayList<>();
+	private final AtomicLong nextId = new AtomicLong(100);
+	private BlogImportService service;
+
+	@BeforeEach
+	void setUp() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+		service = new BlogImportService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(service, "postContentService", new PostContentService());
+		ReflectionTestUtils.setField(service, "blogSearchService", blogSearchService);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(service, "batchSize", 2);
+		ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+
+		// Hands out one generated key per row, the way the driver does for a batch.
+		when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+				any(KeyHolder.class))).thenAnswer(invocation -> {
+					BatchPreparedStatementSetter setter = invocation.getArgument(1);
+					KeyHolder keys = invocation.getArgument(2);
+					for (int i = 0; i < setter.getBatchSize(); i++) {
+						keys.getKeyList().add(Map.of("GENERATED_KEY", nextId.getAndIncrement()));
+					}
+					return new int[setter.getBatchSize()];
+				});
+		when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Object[]>>any()))
+				.thenAnswer(invocation -> {
+					List<Object[]> rows = invocation.getArgument(1);
+					comments.addAll(rows);
+					return new int[][] { new int[rows.size()] };
+				});
+	}
+
+	private ImportResult importLines(String... lines) throws Exception {
+		String body = String.join("\n", lines) + "\n";
+		return service.importPosts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void writesPostsInBatchesAndLinksCommentsToGeneratedIds() throws Exception {
+		ImportResult result = importLines(
+				"{\"title\":\"First\",\"content\":\"<p>One</p>\",\"comments\":[{\"content\":\"a\"},{\"content\":\"b\"}]}",
+				"{\"title\":\"Second\",\"content\":\"<p>Two</p>\",\"createdAt\":\"2020-01-01T10:00:00\"}",
+				"{\"title\":\"Third\",\"content\":\"<p>Three</p>\",\"comments\":[{\"content\":\"c\",\"authorId\":7}]}");
+
+		assertEquals(3, result.getImportedPosts());
+		assertEquals(3, result.getImportedComments());
+		assertEquals(0, result.getFailed());
+		verify(jdbcTemplate, times(2)).batchUpdate(any(PreparedStatementCreator.class),
+				any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+		assertEquals(100L, comments.get(0)[3]);
+		assertEquals(100L, comments.get(1)[3]);
+		assertEquals(102L, comments.get(2)[3]);
+		assertEquals(7L, comments.get(2)[1]);
+
+		ArgumentCaptor<BlogPost> indexed = ArgumentCaptor.forClass(BlogPost.class);
+		verify(blogSearchService, times(3)).index(indexed.capture());
+		BlogPost first = indexed.getAllValues().get(0);
+		assertEquals(100L, first.getId());
+		assertEquals(2, first.getCommentCount());
+		assertEquals("One", first.getExcerpt());
+	}
+
+	@Test
+	void reportsInvalidLinesAndImportsTheRest() throws Exception {
+		ImportResult result = importLines(
+				"{\"title\":\"Broken\"",
+				"",
+				"{\"content\":\"No title\"}",
+				"{\"title\":\"Empty comment\",\"content\":\"x\",\"comments\":[{\"content\":\" \"}]}",
+				"{\"title\":\"Fine\",\"content\":\"x\"}");
+
+		assertEquals(1, result.getImportedPosts());
+		assertEquals(3, result.getFailed());
+		assertEquals(1, result.getErrors().get(0).getLine());
+		assertEquals(3, result.getErrors().get(1).getLine());
+		assertEquals("Title is required", result.getErrors().get(1).getMessage());
+		assertEquals(4, result.getErrors().get(2).getLine());
+		assertEquals("Comment 0 has no content", result.getErrors().get(2).getMessage());
+	}
+
+	@Test
+	void rejectedBatchFailsEachOfItsRecords() throws Exception {
+		when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+				any(KeyHolder.class))).thenThrow(new DataIntegrityViolationException("Data too long"));
+
+		ImportResult result = importLines(
+				"{\"title\":\"First\",\"content\":\"x\"}",
+				"{\"title\":\"Second\",\"content\":\"x\"}");
+
+		assertEquals(0, result.getImportedPosts());
+		assertEquals(2, result.getFailed());
+		assertEquals(2, result.getErrors().get(1).getLine());
+		verify(blogSearchService, never()).index(any());
+	}
+
+	@Test
+	void onlyTheLinesTheDatabaseRejectsFail() throws Exception {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).addScript("import-schema.sql").build();
+		try {
+			JdbcTemplate h2 = new JdbcTemplate(database);
+			ReflectionTestUtils.setField(service, "jdbcTemplate", h2);
+			ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(database));
+			ReflectionTestUtils.setField(service, "batchSize", 4);
+
+			// Passes validation but is too long for the content column.
+			String tooLong = "x".repeat(70_000);
+			ImportResult result = importLines(
+					"{\"title\":\"First\",\"content\":\"x\"}",
+					"{\"title\":\"Second\",\"content\":\"x\",\"comments\":[{\"content\":\"a\"}]}",
+					"{\"title\":\"Third\",\"content\":\"" + tooLong + "\",\"comments\":[{\"content\":\"b\"}]}",
+					"{\"title\":\"Fourth\",\"content\":\"x\"}",
+					"{\"title\":\"Fifth\",\"content\":\"x\",\"comments\":[{\"content\":\"c\"}]}");
+
+			assertEquals(4, result.getImportedPosts());
+			assertEquals(2, result.getImportedComments());
+			assertEquals(1, result.getFailed());
+			assertEquals(3, result.getErrors().get(0).getLine());
+			assertTrue(result.getErrors().get(0).getMessage().startsWith("Rejected by the database"));
+			assertEquals(List.of("First", "Second", "Fourth", "Fifth"),
+					h2.queryForList("select title from blog_post order by id", String.class));
+			assertEquals(List.of("Second:a", "Fifth:c"), h2.queryForList("select p.title || ':' || c.content"
+					+ " from comment c join blog_post p on p.id = c.post_id order by c.id", String.class));
+			verify(blogSearchService, times(4)).index(any());
+		} finally {
+			database.shutdown();
+		}
+	}
+}
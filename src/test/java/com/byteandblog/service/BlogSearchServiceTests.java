@@ -0,0 +1,155 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.entity.BlogPost;
+import com.byteandblog.repository.BlogPostRepository;
+import com.byteandblog.service.BlogSearchService.SearchHit;
+
+class BlogSearchServiceTests {
+
+	private final BlogPostRepository repository = mock(BlogPostRepository.class);
+	private BlogSearchService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new BlogSearchService();
+		ReflectionTestUtils.setField(service, "blogPostRepository", repository);
+		ReflectionTestUtils.setField(service, "postContentService", new PostContentService());
+	}
+
+	private static BlogPost post(long id, String title, String content) {
+		BlogPost post = new BlogPost();
+		post.setId(id);
+		post.setTitle(title);
+		post.setContent(content);
+		post.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusDays(id));
+		return post;
+	}
+
+	private List<Long> ids(String query) {
+		return service.search(query, 10).stream().map(SearchHit::getId).collect(Collectors.toList());
+	}
+
+	@Test
+	void tokenizerLowercasesAndDropsStopWordsAndSingleCharacters() {
+		assertEquals(List.of("spring", "boot", "caché", "2026"),
+				BlogSearchService.tokenize("The Spring-Boot a x CACHÉ, in 2026!"));
+		assertEquals(List.of(), BlogSearchService.tokenize(null));
+	}
+
+	@Test
+	void titleMatchesOutrankBodyMatches() {
+		service.index(post(1, "Cooking pasta", "<p>Notes on java and water.</p>"));
+		service.index(post(2, "Java performance", "<p>Profiling tips.</p>"));
+		service.index(post(3, "Gardening", "<p>Nothing relevant here.</p>"));
+
+		assertEquals(List.of(2L, 1L), ids("java"));
+	}
+
+	@Test
+	void rarerTermsWeighMoreAndMoreTermsRankHigher() {
+		service.index(post(1, "One", "<p>common common rare</p>"));
+		service.index(post(2, "Two", "<p>common common common</p>"));
+		service.index(post(3, "Three", "<p>common</p>"));
+
+		List<Long> ranked = ids("common rare");
+		assertEquals(1L, ranked.get(0));
+		assertEquals(3, ranked.size());
+		assertEquals(List.of(2L), service.search("common rare", 2).stream().skip(1).map(SearchHit::getId)
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	void limitKeepsTheBestHits() {
+		for (long id = 1; id <= 20; id++) {
+			service.index(post(id, "Post " + id, "<p>" + "word ".repeat((int) id) + "</p>"));
+		}
+
+		List<SearchHit> hits = service.search("word", 3);
+		assertEquals(3, hits.size());
+		assertTrue(hits.get(0).getScore() >= hits.get(1).getScore());
+		assertTrue(hits.get(1).getScore() >= hits.get(2).getScore());
+	}
+
+	@Test
+	void highlightsWholeWordsAndEscapesText() {
+		service.index(post(1, "Java <tips>", "<p>" + "filler ".repeat(30) + "Use java &amp; javascript wisely.</p>"));
+
+		SearchHit hit = service.search("JAVA", 10).get(0);
+		assertEquals("<mark>Java</mark> &lt;tips&gt;", hit.getHighlightedTitle());
+		assertTrue(hit.getSnippet().startsWith("..."), hit.getSnippet());
+		assertTrue(hit.getSnippet().contains("Use <mark>java</mark> &amp; javascript wisely."), hit.getSnippet());
+	}
+
+	@Test
+	void removeAndReindexReplaceTheDocument() {
+		service.index(post(1, "Kotlin", "<p>coroutines</p>"));
+		service.index(post(1, "Scala", "<p>actors</p>"));
+		assertEquals(List.of(), ids("kotlin"));
+		assertEquals(List.of(1L), ids("scala"));
+
+		service.remove(1L);
+		assertEquals(List.of(), ids("scala"));
+	}
+
+	@Test
+	void writesDuringRebuildWinOverTheStalePage() {
+		service.index(post(9, "Old only in memory", "<p>dropped by rebuild</p>"));
+		when(repository.findBatchAfter(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+			// The batch was read before these writes reached the index.
+			service.remove(2L);
+			service.index(post(3, "Fresh post", "<p>written during rebuild</p>"));
+			service.index(post(1, "Edited title", "<p>new body</p>"));
+			return List.of(post(1, "Original title", "<p>old body</p>"), post(2, "Deleted post", "<p>gone</p>"));
+		});
+
+		service.rebuild();
+
+		assertEquals(List.of(), ids("deleted"));
+		assertEquals(List.of(3L), ids("fresh"));
+		assertEquals(List.of(1L), ids("edited"));
+		assertEquals(List.of(), ids("original"));
+		assertEquals(List.of(), ids("dropped"));
+	}
+
+	@Test
+	void rebuildSeeksThroughAllPostsById() {
+		List<BlogPost> posts = new ArrayList<>();
+		for (long id = 1; id <= 450; id++) {
+			posts.add(post(id, "Post " + id, "<p>shared</p>"));
+		}
+		when(repository.findBatchAfter(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			Limit limit = invocation.getArgument(1);
+			return posts.stream().filter(post -> post.getId() > afterId).limit(limit.max())
+					.collect(Collectors.toList());
+		});
+
+		service.rebuild();
+
+		assertEquals(450, service.search("shared", 1000).size());
+		verify(repository).findBatchAfter(eq(200L), any(Limit.class));
+		verify(repository).findBatchAfter(eq(400L), any(Limit.class));
+		verify(repository, never()).findAll(any(Pageable.class));
+	}
+}
@@ -0,0 +1,67 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.byteandblog.service.ContactExportService.CsvRowWriter;
+import com.byteandblog.service.ContactExportService.NdjsonRowWriter;
+import com.byteandblog.service.ContactExportService.RowWriter;
+
+class ContactExportServiceTests {
+
+	private static ResultSet row(long id, String name, String email, String message) throws SQLException {
+		ResultSet row = mock(ResultSet.class);
+		when(row.getLong("id")).thenReturn(id);
+		when(row.getString("name")).thenReturn(name);
+		when(row.getString("email")).thenReturn(email);
+		when(row.getString("message")).thenReturn(message);
+		when(row.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2026, 10, 5, 9, 30)));
+		return row;
+	}
+
+	private static String write(RowWriter writer, ByteArrayOutputStream out, ResultSet... rows) throws Exception {
+		writer.begin();
+		for (ResultSet row : rows) {
+			writer.write(row);
+		}
+		writer.end();
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLine() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		NdjsonRowWriter writer = new NdjsonRowWriter(out);
+
+		String ndjson = write(writer, out, row(1, "Sam", "sam@example.com", "Hi \"there\"\nbye"),
+				row(2, "Ana", "ana@example.com", "Hello"));
+
+		assertEquals("{\"id\":1,\"name\":\"Sam\",\"email\":\"sam@example.com\",\"message\":\"Hi \\\"there\\\"\\nbye\","
+				+ "\"createdAt\":\"2026-10-05T09:30\"}\n"
+				+ "{\"id\":2,\"name\":\"Ana\",\"email\":\"ana@example.com\",\"message\":\"Hello\","
+				+ "\"createdAt\":\"2026-10-05T09:30\"}\n", ndjson);
+		assertEquals(2, writer.rows);
+	}
+
+	@Test
+	void csvQuotesSpecialCharactersAndDefusesFormulas() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		String csv = write(new CsvRowWriter(out), out, row(1, "Doe, Sam", "sam@example.com", "Say \"hi\"\nthen go"),
+				row(2, "=HYPERLINK(\"x\")", "ana@example.com", "plain"));
+
+		assertEquals("id,name,email,message,createdAt\r\n"
+				+ "1,\"Doe, Sam\",sam@example.com,\"Say \"\"hi\"\"\nthen go\",2026-10-05T09:30\r\n"
+				+ "2,\"'=HYPERLINK(\"\"x\"\")\",ana@example.com,plain,2026-10-05T09:30\r\n", csv);
+	}
+}
@@ -0,0 +1,259 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.service.FileUploadService.UploadStatus;
+
+class FileUploadServiceTests {
+
+	// SHA-256 of "hello world"
+	private static final String HELLO_HASH = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+
+	@TempDir
+	Path uploadDir;
+
+	@TempDir
+	Path stagingDir;
+
+	private FileUploadService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new FileUploadService();
+		ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+		ReflectionTestUtils.setField(service, "stagingDir", stagingDir.toString());
+		ReflectionTestUtils.setField(service, "chunkSize", 4);
+		ReflectionTestUtils.setField(service, "maxChunkedSize", 1024L);
+	}
+
+	private MockMultipartFile file(String name, String content) {
+		return new MockMultipartFile("image", name, "image/png", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void storesUploadUnderShardedContentHash() throws IOException {
+		String url = service.uploadFile(file("Photo.PNG", "hello world"));
+
+		assertEquals("/uploads/b9/4d/" + HELLO_HASH + ".png", url);
+		assertArrayEquals("hello world".getBytes(StandardCharsets.UTF_8),
+				Files.readAllBytes(uploadDir.resolve("b9/4d/" + HELLO_HASH + ".png")));
+	}
+
+	@Test
+	void identicalContentIsStoredOnce() throws IOException {
+		String first = service.uploadFile(file("a.png", "hello world"));
+		String second = service.uploadFile(file("b.png", "hello world"));
+		String other = service.uploadFile(file("c.png", "something else"));
+
+		assertEquals(first, second);
+		assertNotEquals(first, other);
+		try (Stream<Path> files = Files.walk(uploadDir)) {
+			assertEquals(2, files.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	void unsafeExtensionsAreDropped() throws IOException {
+		String url = service.uploadFile(file("evil.pé/../x", "hello world"));
+
+		assertTrue(url.endsWith("/" + HELLO_HASH));
+	}
+
+	private ByteArrayInputStream chunk(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void chunkedUploadResumesAndLandsInContentAddressedStorage() throws IOException {
+		UploadStatus started = service.startChunkedUpload("notes.txt", 11, HELLO_HASH);
+		String id = started.getUploadId();
+		assertEquals(3, started.getChunkCount());
+
+		service.writeChunk(id, 8, chunk("rld"), null);
+		assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, chunk("he"), null));
+		UploadStatus resumed = service.getChunkedUpload(id);
+		assertEquals(List.of(0, 1), resumed.getMissingChunks());
+		assertThrows(IllegalStateException.class, () -> service.completeChunkedUpload(id));
+
+		service.writeChunk(id, 0, chunk("hell"), null);
+		UploadStatus done = service.writeChunk(id, 4, chunk("o wo"), null);
+		String url = service.completeChunkedUpload(id);
+
+		assertTrue(done.isComplete());
+		assertEquals("/uploads/b9/4d/" + HELLO_HASH + ".txt", url);
+		assertTrue(service.isStoredUpload(url));
+		try (Stream<Path> incoming = Files.list(stagingDir)) {
+			assertEquals(0, incoming.count());
+		}
+	}
+
+	@Test
+	void chunkedUploadRejectsBadOffsetsAndChecksums() throws IOException {
+		String id = service.startChunkedUpload("notes.txt", 11, null).getUploadId();
+
+		assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 2, chunk("llo "), null));
+		assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, chunk("hello"), null));
+		assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, chunk("hell"), "00"));
+		assertEquals(0, service.getChunkedUpload(id).getReceivedChunkCount());
+		// In-progress files live outside the served upload directory.
+		assertTrue(Files.exists(stagingDir.resolve(id + ".part")));
+		try (Stream<Path> served = Files.walk(uploadDir)) {
+			assertEquals(0, served.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	void completionFailsWhenContentDoesNotMatchExpectedHash() throws IOException {
+		String id = service.startChunkedUpload("notes.txt", 4, HELLO_HASH).getUploadId();
+		service.writeChunk(id, 0, chunk("nope"), null);
+
+		assertThrows(IllegalStateException.class, () -> service.completeChunkedUpload(id));
+	}
+
+	// Sends head, then blocks until released before sending the rest.
+	private InputStream stalling(String head, String rest, CountDownLatch started, CountDownLatch release) {
+		return new SequenceInputStream(chunk(head), new InputStream() {
+			private final InputStream remaining = chunk(rest);
+
+			@Override
+			public int read() throws IOException {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+				return remaining.read();
+			}
+		});
+	}
+
+	@Test
+	void failedRewriteOfAReceivedChunkMarksItMissing() throws IOException {
+		String id = service.startChunkedUpload("notes.txt", 4, null).getUploadId();
+		service.writeChunk(id, 0, chunk("hell"), null);
+
+		assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0, chunk("he"), null));
+
+		assertEquals(List.of(0), service.getChunkedUpload(id).getMissingChunks());
+		assertThrows(IllegalStateException.class, () -> service.completeChunkedUpload(id));
+	}
+
+	@Test
+	void completionWaitsForChunksBeingWritten() throws Exception {
+		String id = service.startChunkedUpload("notes.txt", 11, HELLO_HASH).getUploadId();
+		service.writeChunk(id, 0, chunk("hell"), null);
+		service.writeChunk(id, 4, chunk("o wo"), null);
+		service.writeChunk(id, 8, chunk("rld"), null);
+
+		// Re-sends chunk 0 but stalls after its first two bytes.
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InputStream stalling = stalling("he", "ll", started, release);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<UploadStatus> rewrite = pool.submit(() -> service.writeChunk(id, 0, stalling, null));
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+
+			assertThrows(IllegalStateException.class, () -> service.completeChunkedUpload(id));
+			assertThrows(IllegalStateException.class, () -> service.writeChunk(id, 0, chunk("hell"), null));
+			assertEquals(List.of(0), service.getChunkedUpload(id).getMissingChunks());
+
+			release.countDown();
+			assertTrue(rewrite.get(10, TimeUnit.SECONDS).isComplete());
+		} finally {
+			release.countDown();
+			pool.shutdownNow();
+		}
+
+		assertEquals("/uploads/b9/4d/" + HELLO_HASH + ".txt", service.completeChunkedUpload(id));
+	}
+
+	private void age(String uploadId) throws IOException {
+		FileTime longAgo = FileTime.fromMillis(System.currentTimeMillis() - 2 * 60 * 60_000);
+		Files.setLastModifiedTime(stagingDir.resolve(uploadId + ".part"), longAgo);
+		Files.setLastModifiedTime(stagingDir.resolve(uploadId + ".json"), longAgo);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, ?> uploadLocks() {
+		return (Map<String, ?>) ReflectionTestUtils.getField(service, "uploadLocks");
+	}
+
+	@Test
+	void purgeRemovesExpiredUploadsWholeAndForgetsTheirLocks() throws IOException {
+		ReflectionTestUtils.setField(service, "chunkedExpireAfterMillis", 60 * 60_000L);
+		String expired = service.startChunkedUpload("old.txt", 8, null).getUploadId();
+		service.writeChunk(expired, 0, chunk("abcd"), null);
+		age(expired);
+		String active = service.startChunkedUpload("new.txt", 8, null).getUploadId();
+		service.writeChunk(active, 0, chunk("abcd"), null);
+		Path crashed = Files.writeString(stagingDir.resolve("upload-crashed.part"), "x");
+		Files.setLastModifiedTime(crashed, FileTime.fromMillis(0));
+
+		service.purgeExpiredUploads();
+
+		try (Stream<Path> staged = Files.list(stagingDir)) {
+			assertEquals(List.of(active + ".json", active + ".part"),
+					staged.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList()));
+		}
+		assertThrows(NoSuchElementException.class, () -> service.getChunkedUpload(expired));
+		assertEquals(Set.of(active), uploadLocks().keySet());
+	}
+
+	@Test
+	void purgeLeavesAnUploadAloneWhileAChunkIsBeingWritten() throws Exception {
+		ReflectionTestUtils.setField(service, "chunkedExpireAfterMillis", 60 * 60_000L);
+		String id = service.startChunkedUpload("notes.txt", 4, null).getUploadId();
+		age(id);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<UploadStatus> write = pool.submit(() -> service.writeChunk(id, 0, stalling("he", "ll", started, release),
+					null));
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			age(id);
+
+			service.purgeExpiredUploads();
+
+			release.countDown();
+			assertTrue(write.get(10, TimeUnit.SECONDS).isComplete());
+		} finally {
+			release.countDown();
+			pool.shutdownNow();
+		}
+		assertTrue(Files.exists(stagingDir.resolve(id + ".part")));
+	}
+}
@@ -0,0 +1,150 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.repository.PortfolioImage;
+import com.byteandblog.repository.PortfolioItemRepository;
+import com.byteandblog.service.ImageVariantService.Variant;
+
+class ImageVariantServiceTests {
+
+	@TempDir
+	Path uploadDir;
+
+	private ImageVariantService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new ImageVariantService();
+		ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+		ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+	}
+
+	private void writePng(String relativePath, int width, int height) throws IOException {
+		Path file = uploadDir.resolve(relativePath);
+		Files.createDirectories(file.getParent());
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", file.toFile());
+	}
+
+	private int widthOf(String url) throws IOException {
+		return ImageIO.read(uploadDir.resolve(url.substring("/uploads/".length())).toFile()).getWidth();
+	}
+
+	@Test
+	void writesEachVariantNextToTheOriginal() throws IOException {
+		writePng("ab/cd/abcd.png", 3200, 1600);
+
+		Map<Variant, String> urls = service.createVariants("/uploads/ab/cd/abcd.png");
+
+		assertEquals("/uploads/ab/cd/abcd-320w.jpg", urls.get(Variant.THUMBNAIL));
+		assertEquals(320, widthOf(urls.get(Variant.THUMBNAIL)));
+		assertEquals(768, widthOf(urls.get(Variant.CARD)));
+		assertEquals(1600, widthOf(urls.get(Variant.FULL)));
+	}
+
+	@Test
+	void smallImagesAreNotUpscaled() throws IOException {
+		writePng("small.png", 500, 300);
+
+		Map<Variant, String> urls = service.createVariants("/uploads/small.png");
+
+		assertEquals(320, widthOf(urls.get(Variant.THUMBNAIL)));
+		assertEquals(500, widthOf(urls.get(Variant.CARD)));
+		assertEquals(500, widthOf(urls.get(Variant.FULL)));
+	}
+
+	@Test
+	void existingVariantsAreReusedAndTouched() throws IOException {
+		writePng("ab/cd/abcd.png", 1000, 1000);
+		Map<Variant, String> first = service.createVariants("/uploads/ab/cd/abcd.png");
+		Path thumbnail = uploadDir.resolve("ab/cd/abcd-320w.jpg");
+		byte[] written = Files.readAllBytes(thumbnail);
+		Files.setLastModifiedTime(thumbnail, FileTime.fromMillis(1000));
+
+		Map<Variant, String> second = service.createVariants("/uploads/ab/cd/abcd.png");
+
+		assertEquals(first, second);
+		assertArrayEquals(written, Files.readAllBytes(thumbnail));
+		// The sweeper's grace period starts over, so it cannot delete the file before the URL is stored again.
+		assertTrue(Files.getLastModifiedTime(thumbnail).toMillis() > System.currentTimeMillis() - 60_000);
+	}
+
+	@Test
+	void jobsRefusedByAFullQueueAreRetried() throws Exception {
+		PortfolioItemRepository repository = mock(PortfolioItemRepository.class);
+		ReflectionTestUtils.setField(service, "portfolioItemRepository", repository);
+		ReflectionTestUtils.setField(service, "threads", 1);
+		ReflectionTestUtils.setField(service, "queueCapacity", 1);
+		service.startWorkers();
+		CountDownLatch release = new CountDownLatch(1);
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "executor");
+		executor.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		executor.execute(() -> {
+		});
+		writePng("retry.png", 400, 400);
+		PortfolioImage image = mock(PortfolioImage.class);
+		when(image.getId()).thenReturn(7L);
+		when(image.getImageUrl()).thenReturn("/uploads/retry.png");
+		when(repository.findItemsWithoutVariants()).thenReturn(List.of(image));
+		CountDownLatch stored = new CountDownLatch(1);
+		when(repository.updateVariants(eq(7L), eq("/uploads/retry.png"), any(), any(), any(), any()))
+				.thenAnswer(invocation -> {
+					stored.countDown();
+					return 1;
+				});
+
+		service.generateVariants(7L, "/uploads/retry.png");
+		service.retryRejected();
+		assertEquals(1, stored.getCount());
+
+		release.countDown();
+		while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+			Thread.sleep(10);
+		}
+		service.retryRejected();
+
+		assertTrue(stored.await(10, TimeUnit.SECONDS));
+		verify(repository, times(2)).findItemsWithoutVariants();
+		service.shutdown();
+	}
+
+	@Test
+	void nonImagesAndEscapingPathsAreIgnored() throws IOException {
+		Files.writeString(uploadDir.resolve("notes.png"), "not an image");
+
+		assertTrue(service.createVariants("/uploads/notes.png").isEmpty());
+		assertTrue(service.createVariants("/uploads/../outside.png").isEmpty());
+	}
+}
@@ -0,0 +1,96 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryOtpStoreTests {
+
+	@Test
+	void codeIsConsumedOnFirstMatch() {
+		InMemoryOtpStore store = new InMemoryOtpStore(60_000, 5, 100, 1000);
+		store.store("a@example.com", "123456");
+
+		assertTrue(store.validate("a@example.com", "123456"));
+		assertFalse(store.validate("a@example.com", "123456"));
+	}
+
+	@Test
+	void codeIsDroppedAfterTooManyWrongGuesses() {
+		InMemoryOtpStore store = new InMemoryOtpStore(60_000, 3, 100, 1000);
+		store.store("a@example.com", "123456");
+
+		assertFalse(store.validate("a@example.com", "000000"));
+		assertFalse(store.validate("a@example.com", "000001"));
+		assertFalse(store.validate("a@example.com", "000002"));
+
+		assertFalse(store.validate("a@example.com", "123456"));
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	void reissuedCodeReplacesTheOldOneAndResetsAttempts() {
+		InMemoryOtpStore store = new InMemoryOtpStore(60_000, 2, 100, 1000);
+		store.store("a@example.com", "111111");
+		assertFalse(store.validate("a@example.com", "000000"));
+
+		store.store("a@example.com", "222222");
+
+		assertFalse(store.validate("a@example.com", "111111"));
+		assertTrue(store.validate("a@example.com", "222222"));
+	}
+
+	@Test
+	void unusedCodesAreExpiredByTheWheel() throws InterruptedException {
+		InMemoryOtpStore store = new InMemoryOtpStore(100, 5, 100, 50);
+		store.store("a@example.com", "123456");
+		store.store("b@example.com", "654321");
+
+		Thread.sleep(250);
+		store.expire();
+
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	void wheelKeepsCodesThatHaveNotExpired() throws InterruptedException {
+		InMemoryOtpStore store = new InMemoryOtpStore(60_000, 5, 100, 50);
+		store.store("a@example.com", "123456");
+
+		Thread.sleep(120);
+		store.expire();
+
+		assertTrue(store.validate("a@example.com", "123456"));
+	}
+
+	@Test
+	void storeIsBounded() {
+		InMemoryOtpStore store = new InMemoryOtpStore(60_000, 5, 2, 1000);
+
+		assertTrue(store.store("a@example.com", "1"));
+		assertTrue(store.store("b@example.com", "2"));
+		assertFalse(store.store("c@example.com", "3"));
+		assertTrue(store.store("a@example.com", "4"));
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	void replacedAndUsedCodesLeaveTheWheel() {
+		InMemoryOtpStore store = new InMemoryOtpStore(60_000, 2, 2, 1000);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(store.store("a@example.com", String.valueOf(i)));
+		}
+		assertEquals(1, store.scheduled());
+
+		assertTrue(store.validate("a@example.com", "999"));
+		assertEquals(0, store.scheduled());
+
+		store.store("b@example.com", "1");
+		assertFalse(store.validate("b@example.com", "x"));
+		assertFalse(store.validate("b@example.com", "y"));
+		assertEquals(0, store.scheduled());
+		assertEquals(0, store.size());
+	}
+}
@@ -0,0 +1,68 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.byteandblog.config.RateLimitProperties;
+
+class InMemoryRateLimiterTests {
+
+	private static final long MINUTE_MICROS = 60_000_000L;
+
+	private final InMemoryRateLimiter limiter = new InMemoryRateLimiter(new RateLimitProperties());
+
+	@Test
+	void burstUpToCapacityIsAllowed() {
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire("login:ip:1.2.3.4", 5, MINUTE_MICROS));
+		}
+
+		long wait = limiter.tryAcquire("login:ip:1.2.3.4", 5, MINUTE_MICROS);
+
+		// One token refills every 12 seconds.
+		assertTrue(wait > 11_000_000 && wait <= 12_000_000, "wait was " + wait);
+	}
+
+	@Test
+	void keysHaveSeparateBuckets() {
+		assertEquals(0, limiter.tryAcquire("login:ip:1.2.3.4", 1, MINUTE_MICROS));
+		assertTrue(limiter.tryAcquire("login:ip:1.2.3.4", 1, MINUTE_MICROS) > 0);
+
+		assertEquals(0, limiter.tryAcquire("login:ip:5.6.7.8", 1, MINUTE_MICROS));
+	}
+
+	@Test
+	void tokensRefillOverThePeriod() throws InterruptedException {
+		assertEquals(0, limiter.tryAcquire("contact:ip:1.2.3.4", 2, 100_000));
+		assertEquals(0, limiter.tryAcquire("contact:ip:1.2.3.4", 2, 100_000));
+		assertTrue(limiter.tryAcquire("contact:ip:1.2.3.4", 2, 100_000) > 0);
+
+		Thread.sleep(60);
+
+		assertEquals(0, limiter.tryAcquire("contact:ip:1.2.3.4", 2, 100_000));
+	}
+
+	@Test
+	void concurrentCallersNeverExceedCapacity() throws InterruptedException {
+		AtomicInteger allowed = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 1000; i++) {
+			pool.execute(() -> {
+				if (limiter.tryAcquire("comment:account:admin", 50, MINUTE_MICROS) == 0) {
+					allowed.incrementAndGet();
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(50, allowed.get());
+	}
+}
@@ -0,0 +1,167 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.entity.OutboxMail;
+
+class MailDispatcherTests {
+
+	private ServerSocket smtp;
+	private final ExecutorService smtpThreads = Executors.newCachedThreadPool();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+	private final MailOutboxService outbox = mock(MailOutboxService.class);
+	private MailDispatcher dispatcher;
+
+	// Just enough SMTP to accept mail; recipients at refused.example are rejected.
+	@BeforeEach
+	void startSmtpStub() throws IOException {
+		smtp = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		smtpThreads.execute(() -> {
+			while (!smtp.isClosed()) {
+				try {
+					Socket socket = smtp.accept();
+					connections.incrementAndGet();
+					smtpThreads.execute(() -> converse(socket));
+				} catch (IOException e) {
+					return;
+				}
+			}
+		});
+
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("127.0.0.1");
+		mailSender.setPort(smtp.getLocalPort());
+		dispatcher = new MailDispatcher();
+		ReflectionTestUtils.setField(dispatcher, "mailOutboxService", outbox);
+		ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+		ReflectionTestUtils.setField(dispatcher, "batchSize", 3);
+	}
+
+	private void converse(Socket socket) {
+		try (socket;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+			out.print("220 stub\r\n");
+			out.flush();
+			String recipient = null;
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.toUpperCase();
+				if (command.startsWith("RCPT TO:")) {
+					recipient = line.substring(8).trim();
+					out.print(recipient.contains("refused.example") ? "550 no such user\r\n" : "250 ok\r\n");
+				} else if (command.equals("DATA")) {
+					out.print("354 go ahead\r\n");
+					out.flush();
+					while (!".".equals(in.readLine())) {
+						// message body
+					}
+					delivered.add(recipient);
+					out.print("250 queued\r\n");
+				} else if (command.equals("QUIT")) {
+					out.print("221 bye\r\n");
+					out.flush();
+					return;
+				} else {
+					out.print("250 ok\r\n");
+				}
+				out.flush();
+			}
+		} catch (IOException e) {
+			// connection closed by the client
+		}
+	}
+
+	@AfterEach
+	void stopSmtpStub() throws IOException {
+		smtp.close();
+		smtpThreads.shutdownNow();
+		dispatcher.shutdown();
+	}
+
+	private static OutboxMail mail(long id, String recipient) {
+		OutboxMail mail = new OutboxMail();
+		mail.setId(id);
+		mail.setRecipient(recipient);
+		mail.setSubject("Subject " + id);
+		mail.setBody("Body " + id);
+		return mail;
+	}
+
+	@Test
+	void batchIsSentOverOneConnection() {
+		List<OutboxMail> batch = List.of(mail(1, "a@example.com"), mail(2, "b@example.com"),
+				mail(3, "c@example.com"));
+
+		Map<Long, String> failures = dispatcher.send(batch);
+
+		assertTrue(failures.isEmpty());
+		assertEquals(1, connections.get());
+		assertEquals(List.of("<a@example.com>", "<b@example.com>", "<c@example.com>"), delivered);
+	}
+
+	@Test
+	void refusedRecipientFailsOnlyItsOwnMail() {
+		List<OutboxMail> batch = List.of(mail(1, "a@example.com"), mail(2, "x@refused.example"),
+				mail(3, "c@example.com"));
+
+		Map<Long, String> failures = dispatcher.send(batch);
+
+		assertEquals(Map.of(2L, failures.get(2L)), failures);
+		assertEquals(List.of("<a@example.com>", "<c@example.com>"), delivered);
+	}
+
+	@Test
+	void unreachableServerFailsTheWholeBatch() throws IOException {
+		smtp.close();
+		List<OutboxMail> batch = List.of(mail(1, "a@example.com"), mail(2, "b@example.com"));
+
+		Map<Long, String> failures = dispatcher.send(batch);
+
+		assertEquals(2, failures.size());
+	}
+
+	@Test
+	void dispatchDrainsFullBatchesUntilTheOutboxIsEmpty() {
+		List<OutboxMail> first = List.of(mail(1, "a@example.com"), mail(2, "b@example.com"),
+				mail(3, "c@example.com"));
+		List<OutboxMail> second = List.of(mail(4, "d@example.com"));
+		when(outbox.claimDue(anyInt())).thenReturn(first).thenReturn(second).thenReturn(List.of());
+
+		dispatcher.dispatch();
+
+		verify(outbox).complete(first, Map.of());
+		verify(outbox).complete(second, Map.of());
+		assertEquals(4, delivered.size());
+		assertEquals(2, connections.get());
+	}
+}
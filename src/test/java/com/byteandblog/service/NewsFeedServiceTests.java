@@ -0,0 +1,251 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.byteandblog.config.NewsProperties;
+import com.byteandblog.config.NewsProperties.Feed;
+import com.byteandblog.service.NewsFeedService.NewsArticle;
+import com.byteandblog.service.NewsFeedService.NewsSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class NewsFeedServiceTests {
+
+	private static final String FEED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<rss version=\"2.0\" xmlns:content=\"http://purl.org/rss/1.0/modules/content/\"><channel>"
+			+ "<title>Stub</title><link>http://localhost/</link><description>Stub feed</description>"
+			+ "<item><title>First story</title><link>http://localhost/first</link>"
+			+ "<description>About the first story</description>"
+			+ "<pubDate>Mon, 05 Oct 2026 10:00:00 GMT</pubDate>"
+			+ "<content:encoded><![CDATA[<p><img src='http://localhost/first.jpg' /></p>]]></content:encoded>"
+			+ "</item>"
+			+ "<item><title>Second story</title><link>http://localhost/second</link>"
+			+ "<pubDate>Mon, 05 Oct 2026 08:00:00 GMT</pubDate></item>"
+			+ "</channel></rss>";
+
+	// Carries the first story again under a tracking link, plus one story of its own.
+	private static final String OTHER_FEED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<rss version=\"2.0\"><channel>"
+			+ "<title>Other</title><link>http://localhost/</link><description>Other feed</description>"
+			+ "<item><title>First Story!</title><link>https://LOCALHOST/first/?utm_source=rss</link>"
+			+ "<pubDate>Mon, 05 Oct 2026 10:05:00 GMT</pubDate></item>"
+			+ "<item><title>Third story</title><link>http://localhost/third</link>"
+			+ "<pubDate>Mon, 05 Oct 2026 09:00:00 GMT</pubDate></item>"
+			+ "</channel></rss>";
+
+	private static final String ETAG = "\"v1\"";
+
+	private HttpServer server;
+	private final AtomicInteger status = new AtomicInteger(200);
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+	private final AtomicReference<String> lastIfNoneMatch = new AtomicReference<>();
+
+	@BeforeEach
+	void startStubFeed() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/rss", exchange -> {
+			requests.incrementAndGet();
+			String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+			lastIfNoneMatch.set(ifNoneMatch);
+			if (ETAG.equals(ifNoneMatch) && status.get() == 200) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			exchange.getResponseHeaders().add("ETag", ETAG);
+			respond(exchange, FEED);
+		});
+		server.createContext("/other", exchange -> respond(exchange, OTHER_FEED));
+		server.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(3000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			respond(exchange, OTHER_FEED);
+		});
+		server.start();
+	}
+
+	private void respond(HttpExchange exchange, String feed) throws IOException {
+		byte[] body = feed.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/rss+xml");
+		exchange.sendResponseHeaders(status.get(), body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	@AfterEach
+	void stopStubFeed() {
+		server.stop(0);
+	}
+
+	private Feed feed(String name, String path) {
+		return new Feed(name, "http://127.0.0.1:" + server.getAddress().getPort() + path);
+	}
+
+	private NewsFeedService newService(long staleAfterMillis, Feed... feeds) {
+		NewsProperties properties = new NewsProperties();
+		properties.setFeeds(feeds.length == 0 ? List.of(feed("Stub", "/rss")) : List.of(feeds));
+		properties.setStaleAfterMs(staleAfterMillis);
+		properties.setRetryBackoffMs(0);
+		properties.setFetchTimeoutMs(5000);
+		return new NewsFeedService(properties);
+	}
+
+	@Test
+	void coldStartFetchesAndParsesFeed() {
+		NewsFeedService service = newService(60_000);
+
+		NewsSnapshot snapshot = service.getHeadlines();
+
+		assertNotNull(snapshot);
+		assertEquals(2, snapshot.getArticles().size());
+		NewsArticle first = snapshot.getArticles().get(0);
+		assertEquals("First story", first.getTitle());
+		assertEquals("http://localhost/first.jpg", first.getUrlToImage());
+		assertEquals("Stub", first.getSource().get("name"));
+		service.shutdown();
+	}
+
+	@Test
+	void feedWithoutANameIsLabelledWithItsHost() {
+		NewsFeedService service = newService(60_000, feed(null, "/rss"));
+
+		NewsSnapshot snapshot = service.getHeadlines();
+
+		assertEquals(2, snapshot.getArticles().size());
+		assertEquals("127.0.0.1", snapshot.getArticles().get(0).getSource().get("name"));
+		service.shutdown();
+	}
+
+	@Test
+	void freshCopyIsServedWithoutRefetching() {
+		NewsFeedService service = newService(60_000);
+		NewsSnapshot first = service.getHeadlines();
+
+		NewsSnapshot second = service.getHeadlines();
+
+		assertSame(first, second);
+		assertEquals(1, requests.get());
+		service.shutdown();
+	}
+
+	@Test
+	void failedRefreshKeepsLastGoodCopy() {
+		NewsFeedService service = newService(0);
+		NewsSnapshot good = service.getHeadlines();
+		status.set(500);
+
+		NewsSnapshot afterFailure = service.refreshAsync().join();
+
+		assertSame(good, afterFailure);
+		assertSame(good, service.getHeadlines());
+		service.shutdown();
+	}
+
+	@Test
+	void unchangedFeedIsRevalidatedWithConditionalGet() {
+		NewsFeedService service = newService(0);
+		NewsSnapshot first = service.getHeadlines();
+
+		NewsSnapshot revalidated = service.refreshAsync().join();
+
+		assertEquals(ETAG, lastIfNoneMatch.get());
+		assertEquals(1, notModified.get());
+		assertNotSame(first, revalidated);
+		assertSame(first.getArticles(), revalidated.getArticles());
+		service.shutdown();
+	}
+
+	@Test
+	void feedsAreMergedNewestFirstWithoutDuplicates() {
+		NewsFeedService service = newService(60_000, feed("Stub", "/rss"), feed("Other", "/other"));
+
+		List<NewsArticle> articles = service.getHeadlines().getArticles();
+
+		assertEquals(3, articles.size());
+		assertEquals("First Story!", articles.get(0).getTitle());
+		assertEquals("Other", articles.get(0).getSource().get("name"));
+		assertEquals("Third story", articles.get(1).getTitle());
+		assertEquals("Second story", articles.get(2).getTitle());
+		service.shutdown();
+	}
+
+	@Test
+	void slowFeedIsCutOffAtItsTimeout() {
+		Feed slow = feed("Slow", "/slow");
+		slow.setTimeoutMs(500L);
+		NewsFeedService service = newService(60_000, feed("Stub", "/rss"), slow);
+
+		long start = System.currentTimeMillis();
+		NewsSnapshot snapshot = service.refreshAsync().join();
+
+		assertTrue(System.currentTimeMillis() - start < 2500);
+		assertEquals(2, snapshot.getArticles().size());
+		service.shutdown();
+	}
+
+	@Test
+	void scheduledRefreshDoesNotWaitForTheFetch() {
+		NewsFeedService service = newService(60_000, feed("Slow", "/slow"));
+
+		long start = System.currentTimeMillis();
+		service.scheduledRefresh();
+
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		// The scheduled refresh is still in flight, so this joins it rather than starting another.
+		NewsSnapshot snapshot = service.refreshAsync().join();
+		assertEquals(2, snapshot.getArticles().size());
+		service.shutdown();
+	}
+
+	@Test
+	void responseBodyIsEncodedOncePerRefresh() throws IOException {
+		NewsFeedService service = newService(0);
+		NewsSnapshot first = service.getHeadlines();
+
+		JsonNode body = new ObjectMapper().readTree(first.getBody());
+		byte[] gunzipped;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.getGzippedBody()))) {
+			gunzipped = in.readAllBytes();
+		}
+		NewsSnapshot revalidated = service.refreshAsync().join();
+
+		assertEquals("ok", body.get("status").asText());
+		assertEquals(2, body.get("totalResults").asInt());
+		assertEquals("Stub", body.get("articles").get(0).get("source").get("name").asText());
+		assertEquals(new String(first.getBody(), StandardCharsets.UTF_8),
+				new String(gunzipped, StandardCharsets.UTF_8));
+		assertNotEquals(first.getEtag(), first.getGzippedEtag());
+		assertSame(first.getBody(), revalidated.getBody());
+		assertEquals(first.getEtag(), revalidated.getEtag());
+		service.shutdown();
+	}
+}
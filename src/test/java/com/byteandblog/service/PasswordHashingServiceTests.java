@@ -0,0 +1,99 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.service.PasswordHashingService.Verification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingServiceTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private PasswordHashingService service;
+
+	private PasswordHashingService newService(PasswordEncoder encoder, int threads, int queueCapacity) {
+		PasswordHashingService service = new PasswordHashingService();
+		ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+		ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(service, "threads", threads);
+		ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+		service.startWorkers();
+		return service;
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void hashesAreVerifiedOnTheWorkerPool() {
+		service = newService(new BCryptPasswordEncoder(4), 1, 4);
+
+		String hash = service.encode("secret").join();
+
+		assertTrue(service.verify("secret", hash).join().matches());
+		assertFalse(service.verify("wrong", hash).join().matches());
+		assertEquals(3, meterRegistry.get("auth.password.hashing").timers().stream().mapToLong(t -> t.count()).sum());
+	}
+
+	@Test
+	void weakerHashIsUpgradedOnSuccessfulLogin() {
+		String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+		service = newService(new BCryptPasswordEncoder(5), 1, 4);
+
+		Verification verification = service.verify("secret", oldHash).join();
+		Verification mismatch = service.verify("wrong", oldHash).join();
+
+		assertTrue(verification.matches());
+		assertNotNull(verification.getUpgradedHash());
+		assertTrue(verification.getUpgradedHash().startsWith("$2a$05$"));
+		assertNull(mismatch.getUpgradedHash());
+		assertNull(service.verify("secret", verification.getUpgradedHash()).join().getUpgradedHash());
+	}
+
+	@Test
+	void workBeyondTheQueueIsRefused() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.encode(rawPassword);
+			}
+		};
+		service = newService(blocking, 1, 1);
+
+		CompletableFuture<String> running = service.encode("one");
+		started.await();
+		CompletableFuture<String> queued = service.encode("two");
+
+		assertThrows(RejectedExecutionException.class, () -> service.encode("three"));
+		assertEquals(1.0, meterRegistry.get("auth.password.hashing.queue.size").gauge().value());
+		assertEquals(1.0, meterRegistry.get("auth.password.hashing.rejected").counter().count());
+		release.countDown();
+		assertNotNull(running.join());
+		assertNotNull(queued.join());
+	}
+}
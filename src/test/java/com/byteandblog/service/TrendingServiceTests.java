@@ -0,0 +1,184 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.repository.BlogPostRepository;
+import com.byteandblog.repository.BlogPostSummary;
+import com.byteandblog.service.TrendingService.TrendingPost;
+
+class TrendingServiceTests {
+
+	private final BlogPostRepository repository = mock(BlogPostRepository.class);
+	private final Set<Long> deletedPosts = new HashSet<>();
+	private TrendingService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new TrendingService();
+		ReflectionTestUtils.setField(service, "blogPostRepository", repository);
+		ReflectionTestUtils.setField(service, "halfLifeMinutes", 60.0);
+		ReflectionTestUtils.setField(service, "maxTrackedPosts", 100);
+		ReflectionTestUtils.setField(service, "trendingSize", 3);
+		when(repository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			List<BlogPostSummary> summaries = new ArrayList<>();
+			for (Long id : ids) {
+				if (!deletedPosts.contains(id)) {
+					BlogPostSummary summary = mock(BlogPostSummary.class);
+					when(summary.getId()).thenReturn(id);
+					summaries.add(summary);
+				}
+			}
+			return summaries;
+		});
+	}
+
+	private void views(long postId, int count) {
+		for (int i = 0; i < count; i++) {
+			service.recordView(postId);
+		}
+	}
+
+	private List<Long> trendingIds() {
+		return service.getTrending(10).stream().map(post -> post.getPost().getId()).collect(Collectors.toList());
+	}
+
+	// Pretends the previous refresh happened this long ago.
+	private void elapse(long millis) {
+		ReflectionTestUtils.setField(service, "lastRefreshMillis", System.currentTimeMillis() - millis);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Long, Double> scores() {
+		return (Map<Long, Double>) ReflectionTestUtils.getField(service, "scores");
+	}
+
+	@Test
+	void keepsTheTopPostsBestFirstAndWeighsComments() {
+		views(1, 4);
+		views(2, 9);
+		views(3, 1);
+		service.recordComment(3L);
+		views(4, 2);
+		views(5, 7);
+
+		service.refresh();
+
+		assertEquals(List.of(2L, 5L, 3L), trendingIds());
+		assertEquals(List.of(2L), service.getTrending(1).stream().map(post -> post.getPost().getId())
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	void scoresHalveOverOneHalfLife() {
+		views(1, 8);
+		service.refresh();
+		assertEquals(8.0, service.getTrending(1).get(0).getScore(), 0.01);
+
+		elapse(60 * 60_000);
+		service.refresh();
+		assertEquals(4.0, service.getTrending(1).get(0).getScore(), 0.01);
+
+		// New activity is added on top of the decayed score.
+		views(1, 2);
+		elapse(60 * 60_000);
+		service.refresh();
+		assertEquals(4.0, service.getTrending(1).get(0).getScore(), 0.01);
+	}
+
+	@Test
+	void fullyDecayedPostsAreForgotten() {
+		views(1, 1);
+		service.refresh();
+		elapse(10 * 60 * 60_000);
+		service.refresh();
+
+		assertEquals(List.of(), trendingIds());
+		assertTrue(scores().isEmpty());
+	}
+
+	@Test
+	void trimsTheColdestPostsBeyondTheTrackedLimit() {
+		ReflectionTestUtils.setField(service, "maxTrackedPosts", 2);
+		views(1, 3);
+		views(2, 1);
+		views(3, 5);
+		views(4, 2);
+
+		service.refresh();
+
+		assertEquals(Set.of(1L, 3L), scores().keySet());
+		assertEquals(List.of(3L, 1L), trendingIds());
+	}
+
+	@Test
+	void deletedPostsDropOutOfTheRanking() {
+		views(1, 5);
+		views(2, 3);
+		deletedPosts.add(1L);
+
+		service.refresh();
+
+		assertEquals(List.of(2L), trendingIds());
+		assertEquals(Set.of(2L), scores().keySet());
+	}
+
+	@Test
+	void noWeightIsLostWhileRefreshesRun() throws Exception {
+		ReflectionTestUtils.setField(service, "halfLifeMinutes", 1e12);
+		ReflectionTestUtils.setField(service, "maxTrackedPosts", 1_000_000);
+		int writers = 4;
+		int viewsPerWriter = 50_000;
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int w = 0; w < writers; w++) {
+				int offset = w;
+				futures.add(pool.submit(() -> {
+					for (int i = 0; i < viewsPerWriter; i++) {
+						service.recordView((long) ((i * 7 + offset) % 500));
+					}
+				}));
+			}
+			Thread refresher = new Thread(() -> {
+				while (writing.get()) {
+					service.refresh();
+				}
+			});
+			refresher.start();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+			writing.set(false);
+			refresher.join();
+		} finally {
+			pool.shutdownNow();
+		}
+		service.refresh();
+
+		double total = scores().values().stream().mapToDouble(Double::doubleValue).sum();
+		assertEquals((double) writers * viewsPerWriter, total, 1.0);
+	}
+}
@@ -0,0 +1,107 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.byteandblog.repository.PortfolioItemRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UploadSweeperTests {
+
+	private static final FileTime LONG_AGO = FileTime.fromMillis(System.currentTimeMillis() - 7L * 24 * 60 * 60 * 1000);
+
+	@TempDir
+	Path uploadDir;
+
+	private final PortfolioItemRepository repository = mock(PortfolioItemRepository.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<Integer> lookupSizes = new ArrayList<>();
+	private UploadSweeper sweeper;
+
+	@BeforeEach
+	void setUp() {
+		sweeper = new UploadSweeper();
+		ReflectionTestUtils.setField(sweeper, "portfolioItemRepository", repository);
+		ReflectionTestUtils.setField(sweeper, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(sweeper, "uploadDir", uploadDir.toString());
+		// Configured inside the upload directory, which the sweeper must then leave alone.
+		ReflectionTestUtils.setField(sweeper, "stagingDir", uploadDir.resolve("incoming").toString());
+		ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+		ReflectionTestUtils.setField(sweeper, "gracePeriodMillis", 24L * 60 * 60 * 1000);
+		ReflectionTestUtils.setField(sweeper, "passIntervalMillis", 60_000L);
+		sweeper.registerMetrics();
+		when(repository.findImageUrlsReferencing(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> urls = invocation.getArgument(0);
+			lookupSizes.add(urls.size());
+			List<Object[]> rows = new ArrayList<>();
+			if (urls.contains("/uploads/ab/cd/kept.png")) {
+				rows.add(new Object[] { "/uploads/ab/cd/kept.png", null, null, null });
+			}
+			return rows;
+		});
+	}
+
+	private Path file(String relativePath, FileTime modified) throws IOException {
+		Path file = uploadDir.resolve(relativePath);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, "12345");
+		Files.setLastModifiedTime(file, modified);
+		return file;
+	}
+
+	@Test
+	void deletesOnlyOldUnreferencedFilesInBoundedBatches() throws IOException {
+		Path kept = file("ab/cd/kept.png", LONG_AGO);
+		Path orphan = file("ab/cd/orphan.png", LONG_AGO);
+		Path orphanVariant = file("ab/cd/orphan-320w.jpg", LONG_AGO);
+		Path fresh = file("ef/01/fresh.png", FileTime.fromMillis(System.currentTimeMillis()));
+		Path legacy = file("legacy_upload.png", LONG_AGO);
+		Path staging = file("ab/cd/variant-1.part", LONG_AGO);
+		Path chunked = file("incoming/upload.part", LONG_AGO);
+
+		for (int i = 0; i < 10; i++) {
+			sweeper.sweepBatch();
+		}
+
+		assertTrue(Files.exists(kept));
+		assertTrue(Files.exists(fresh));
+		assertTrue(Files.exists(staging));
+		assertTrue(Files.exists(chunked));
+		assertFalse(Files.exists(orphan));
+		assertFalse(Files.exists(orphanVariant));
+		assertFalse(Files.exists(legacy));
+		assertTrue(lookupSizes.stream().allMatch(size -> size <= 2));
+		assertEquals(15.0, meterRegistry.counter("uploads.sweeper.reclaimed.bytes").count());
+		assertEquals(3.0, meterRegistry.counter("uploads.sweeper.reclaimed.files").count());
+	}
+
+	@Test
+	void waitsForThePassIntervalBeforeWalkingAgain() throws IOException {
+		for (int i = 0; i < 3; i++) {
+			sweeper.sweepBatch();
+		}
+		Path orphan = file("late.png", LONG_AGO);
+
+		sweeper.sweepBatch();
+
+		assertTrue(Files.exists(orphan));
+	}
+}
@@ -0,0 +1,119 @@
+package com.byteandblog.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ViewCountServiceTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final Map<Long, AtomicLong> flushed = new ConcurrentHashMap<>();
+	private ViewCountService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new ViewCountService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> record(invocation.getArgument(1)));
+	}
+
+	private int[] record(List<Object[]> rows) {
+		for (Object[] row : rows) {
+			flushed.computeIfAbsent((Long) row[1], id -> new AtomicLong()).addAndGet((Long) row[0]);
+		}
+		return new int[rows.size()];
+	}
+
+	private long flushedTotal() {
+		return flushed.values().stream().mapToLong(AtomicLong::get).sum();
+	}
+
+	@Test
+	void flushWritesEachPostsViewsOnce() {
+		service.recordView(1L);
+		service.recordView(1L);
+		service.recordView(2L);
+
+		service.flush();
+		service.flush();
+
+		assertEquals(2, flushed.get(1L).get());
+		assertEquals(1, flushed.get(2L).get());
+	}
+
+	@Test
+	void failedFlushKeepsTheViewsForTheNextOne() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("down"))
+				.thenAnswer(invocation -> record(invocation.getArgument(1)));
+		service.recordView(1L);
+		service.recordView(1L);
+		service.flush();
+		assertNull(flushed.get(1L));
+
+		service.recordView(1L);
+		service.flush();
+
+		assertEquals(3, flushed.get(1L).get());
+	}
+
+	@Test
+	void noViewIsLostWhileFlushesAndIdleSweepsRun() throws Exception {
+		int writers = 8;
+		int viewsPerWriter = 200_000;
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		try {
+			Future<?>[] futures = new Future<?>[writers];
+			for (int w = 0; w < writers; w++) {
+				futures[w] = pool.submit(() -> {
+					start.await();
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < viewsPerWriter; i++) {
+						// Many posts with few views each, so counters keep going idle and being retired.
+						service.recordView((long) random.nextInt(2_000));
+					}
+					return null;
+				});
+			}
+			Thread flusher = new Thread(() -> {
+				while (writing.get()) {
+					service.flush();
+				}
+			});
+			flusher.start();
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+			writing.set(false);
+			flusher.join();
+		} finally {
+			pool.shutdownNow();
+		}
+		service.flush();
+
+		assertEquals((long) writers * viewsPerWriter, flushedTotal());
+	}
+}
@@ -0,0 +1,22 @@
+-- The tables BlogImportService writes to, with the column limits Hibernate generates on MySQL.
+-- blog_post.content is TEXT there, which holds at most 65,535 bytes.
+create table blog_post (
+	id bigint auto_increment primary key,
+	title varchar(255),
+	content varchar(65535),
+	author_id bigint,
+	excerpt varchar(500),
+	reading_time_minutes integer,
+	comment_count bigint default 0 not null,
+	view_count bigint default 0 not null,
+	created_at timestamp(6),
+	updated_at timestamp(6)
+);
+
+create table comment (
+	id bigint auto_increment primary key,
+	content varchar(255),
+	author_id bigint,
+	created_at timestamp(6),
+	post_id bigint references blog_post (id)
+);